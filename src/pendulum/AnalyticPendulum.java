@@ -0,0 +1,249 @@
+package pendulum;
+
+/**
+ * Exact solution of the undamped simple pendulum {@code theta'' = -(g/L) sin theta}, evaluated
+ * in O(1) at any time from the initial angle and angular velocity.
+ *
+ * <p>With {@code w0 = sqrt(g/L)} and modulus {@code k^2 = sin^2(theta0/2) + (theta0'/(2 w0))^2}:
+ * <ul>
+ *   <li>{@code k < 1} (libration): {@code sin(theta/2) = k sn(u | k^2)},
+ *       {@code theta' = 2 k w0 cn(u | k^2)} with {@code u = w0 t + u0};</li>
+ *   <li>{@code k > 1} (rotation over the top): {@code theta/2 = am(u | 1/k^2)},
+ *       {@code theta' = 2 k w0 dn(u | 1/k^2)} with {@code u = k w0 t + u0}.</li>
+ * </ul>
+ * The phase {@code u0} comes from the incomplete elliptic integral of the first kind (Carlson's
+ * {@code R_F}), and {@code u} is reduced modulo the period before evaluating the Jacobi functions
+ * (descending Landen / AGM), so {@code t = 1e6} costs the same as {@code t = 1} and stays
+ * accurate to roughly {@code w0 t} ulps of phase.
+ */
+public final class AnalyticPendulum {
+
+    private static final double RF_TOLERANCE = 0.0025; // relative error ~ tolerance^6
+    private static final double AGM_TOLERANCE = 1e-8;  // sn/cn/dn error ~ tolerance^2
+    private static final int AGM_MAX_ITERATIONS = 16;
+
+    private final double length;
+    private final double initialAngle;
+    private final double initialAngularVelocity;
+
+    private final double omega0;
+    private final double k;
+    private final boolean rotating;
+    private final double m;       // parameter of the Jacobi functions
+    private final double quarter; // K(m); infinite on the separatrix
+    private final double rate;    // du/dt
+    private final double u0;
+    private final double center;  // multiple of 2PI a libration swings around
+    private final double sign;    // direction of travel when rotating or on the separatrix
+
+    public AnalyticPendulum(double length, double initialAngle, double initialAngularVelocity) {
+        if (!(length > 0)) throw new IllegalArgumentException("length must be positive: " + length);
+        this.length = length;
+        this.initialAngle = initialAngle;
+        this.initialAngularVelocity = initialAngularVelocity;
+
+        omega0 = Math.sqrt(Pendulum.GRAVITY / length);
+        double half = Math.sin(initialAngle / 2);
+        double speed = initialAngularVelocity / (2 * omega0);
+        k = Math.sqrt(half * half + speed * speed);
+        rotating = k > 1;
+
+        if (!rotating) {
+            m = k * k;
+            quarter = completeK(m);
+            center = 2 * Math.PI * Math.round(initialAngle / (2 * Math.PI));
+            // On the separatrix cn = sech never changes sign, so backwards motion runs time backwards
+            sign = Double.isInfinite(quarter) && initialAngularVelocity < 0 ? -1 : 1;
+            rate = sign * omega0;
+            if (k == 0) {
+                u0 = 0;
+            } else {
+                // sn(u0) = sin(theta0/2) / k; cn(u0) takes the sign of the velocity
+                double s = Math.max(-1, Math.min(1, Math.sin((initialAngle - center) / 2) / k));
+                double f = incompleteF(s);
+                u0 = initialAngularVelocity >= 0 || sign < 0 ? f : 2 * quarter - f;
+            }
+        } else {
+            m = 1 / (k * k);
+            quarter = completeK(m);
+            rate = k * omega0;
+            center = 0;
+            sign = initialAngularVelocity >= 0 ? 1 : -1;
+            u0 = extendedF(sign * initialAngle / 2);
+        }
+    }
+
+    public static AnalyticPendulum of(Pendulum p) {
+        return new AnalyticPendulum(p.getLength(), p.getInitialAngle(), p.getInitialAngularVelocity());
+    }
+
+    // ----------------------------
+    // Evaluation
+    // ----------------------------
+    /** Writes the angle into {@code out[0]} and the angular velocity into {@code out[1]} at {@code time}. */
+    public void evaluate(double time, double[] out) {
+        if (k == 0) {
+            out[0] = initialAngle;
+            out[1] = 0;
+            return;
+        }
+        double u = u0 + rate * time;
+        double[] jacobi = new double[3];
+        if (!rotating) {
+            if (Double.isFinite(quarter)) u -= 4 * quarter * Math.floor(u / (4 * quarter));
+            sncndn(u, 1 - m, jacobi);
+            out[0] = center + 2 * Math.asin(Math.max(-1, Math.min(1, k * jacobi[0])));
+            out[1] = sign * 2 * k * omega0 * jacobi[1];
+        } else {
+            // am(u + 2nK) = am(u) + n PI, so only u in [-K, K] reaches the Jacobi functions
+            double turns = Math.rint(u / (2 * quarter));
+            sncndn(u - 2 * quarter * turns, 1 - m, jacobi);
+            double amplitude = turns * Math.PI + Math.atan2(jacobi[0], jacobi[1]);
+            out[0] = sign * 2 * amplitude;
+            out[1] = sign * 2 * k * omega0 * jacobi[2];
+        }
+    }
+
+    public double angleAt(double time) {
+        double[] out = new double[2];
+        evaluate(time, out);
+        return out[0];
+    }
+
+    public double angularVelocityAt(double time) {
+        double[] out = new double[2];
+        evaluate(time, out);
+        return out[1];
+    }
+
+    /** Sets {@code p}'s angle, angular velocity and acceleration to their exact values at {@code time}. */
+    public void applyTo(Pendulum p, double time) {
+        double[] out = new double[2];
+        evaluate(time, out);
+        p.setState(out[0], out[1], -(Pendulum.GRAVITY / length) * FastTrig.sin(out[0]));
+    }
+
+    /** True while this solution still describes {@code p}, i.e. none of its inputs were edited. */
+    public boolean matches(Pendulum p) {
+        return p.getLength() == length && p.getInitialAngle() == initialAngle
+                && p.getInitialAngularVelocity() == initialAngularVelocity;
+    }
+
+    // ----------------------------
+    // Getters
+    // ----------------------------
+    public boolean isRotating() { return rotating; }
+
+    /** Elliptic modulus; below 1 the pendulum swings, above 1 it goes over the top. */
+    public double getModulus() { return k; }
+
+    /** Time for one full swing, or one full revolution when rotating; infinite on the separatrix. */
+    public double getPeriod() {
+        if (k == 0) return 2 * Math.PI / omega0;
+        return (rotating ? 2 : 4) * quarter / Math.abs(rate);
+    }
+
+    // ----------------------------
+    // Elliptic functions
+    // ----------------------------
+    /** Incomplete integral F(phi | m) continued monotonically beyond [-PI/2, PI/2]. */
+    private double extendedF(double phi) {
+        double turns = Math.rint(phi / Math.PI);
+        return 2 * quarter * turns + incompleteF(Math.sin(phi - turns * Math.PI));
+    }
+
+    /** F(asin(s) | m) for {@code s} in [-1, 1]; infinite at {@code s = +-1} when {@code m = 1}. */
+    private double incompleteF(double s) {
+        double y = 1 - m * s * s;
+        if (y <= 0) return Math.copySign(Double.POSITIVE_INFINITY, s); // balanced at the top
+        return s * carlsonRF(1 - s * s, y, 1);
+    }
+
+    /** Complete integral K(m) via the arithmetic-geometric mean. */
+    static double completeK(double m) {
+        if (m >= 1) return Double.POSITIVE_INFINITY;
+        double a = 1;
+        double b = Math.sqrt(1 - m);
+        for (int i = 0; i < AGM_MAX_ITERATIONS && Math.abs(a - b) > 1e-15 * a; i++) {
+            double next = 0.5 * (a + b);
+            b = Math.sqrt(a * b);
+            a = next;
+        }
+        return Math.PI / (2 * a);
+    }
+
+    /** Carlson's symmetric integral R_F(x, y, z); at most one argument may be zero. */
+    static double carlsonRF(double x, double y, double z) {
+        double average;
+        double dx;
+        double dy;
+        double dz;
+        while (true) {
+            double sx = Math.sqrt(x);
+            double sy = Math.sqrt(y);
+            double sz = Math.sqrt(z);
+            double lambda = sx * (sy + sz) + sy * sz;
+            x = 0.25 * (x + lambda);
+            y = 0.25 * (y + lambda);
+            z = 0.25 * (z + lambda);
+            average = (x + y + z) / 3;
+            dx = (average - x) / average;
+            dy = (average - y) / average;
+            dz = (average - z) / average;
+            if (Math.max(Math.abs(dx), Math.max(Math.abs(dy), Math.abs(dz))) <= RF_TOLERANCE) break;
+        }
+        double e2 = dx * dy - dz * dz;
+        double e3 = dx * dy * dz;
+        return (1 + (e2 / 24 - 0.1 - 3.0 / 44 * e3) * e2 + e3 / 14) / Math.sqrt(average);
+    }
+
+    /**
+     * Jacobi sn, cn and dn of {@code u} for complementary parameter {@code mc = 1 - m}, written to
+     * {@code out[0..2]}, by descending Landen transformation.
+     */
+    static void sncndn(double u, double mc, double[] out) {
+        if (mc == 0) {
+            // m = 1: the functions degenerate to hyperbolic ones
+            double sech = 1 / Math.cosh(u);
+            out[0] = Math.tanh(u);
+            out[1] = sech;
+            out[2] = sech;
+            return;
+        }
+        double[] a = new double[AGM_MAX_ITERATIONS];
+        double[] b = new double[AGM_MAX_ITERATIONS];
+        double an = 1;
+        double c = 1;
+        int last = 0;
+        for (int i = 0; i < AGM_MAX_ITERATIONS; i++) {
+            last = i;
+            a[i] = an;
+            mc = Math.sqrt(mc);
+            b[i] = mc;
+            c = 0.5 * (an + mc);
+            if (Math.abs(an - mc) <= AGM_TOLERANCE * an) break;
+            mc *= an;
+            an = c;
+        }
+        double phase = u * c;
+        double sn = Math.sin(phase);
+        double cn = Math.cos(phase);
+        double dn = 1;
+        if (sn != 0) {
+            double ratio = cn / sn;
+            c *= ratio;
+            for (int i = last; i >= 0; i--) {
+                ratio *= c;
+                c *= dn;
+                dn = (b[i] + ratio) / (a[i] + ratio);
+                ratio = c / a[i];
+            }
+            double norm = 1 / Math.sqrt(c * c + 1);
+            sn = sn >= 0 ? norm : -norm;
+            cn = c * sn;
+        }
+        out[0] = sn;
+        out[1] = cn;
+        out[2] = dn;
+    }
+}
@@ -0,0 +1,29 @@
+package pendulum;
+
+/** A per-pendulum quantity recorded in every sample, named as in {@link Pendulum#getPendulumData}. */
+public enum Channel {
+    BOB_X("Bob X"),
+    BOB_Y("Bob Y"),
+    ANGLE("Angle"),
+    ANGULAR_VELOCITY("Angular Velocity"),
+    ANGULAR_ACCELERATION("Angular Acceleration"),
+    ENERGY("Energy");
+
+    private final String label;
+
+    Channel(String label) { this.label = label; }
+
+    public String getLabel() { return label; }
+
+    /** Reads this channel of {@code pendulum} from a {@link SimulationLoop} sample record. */
+    public double read(double[] record, int pendulum, int pendulumCount) {
+        return switch (this) {
+            case BOB_X -> record[SimulationLoop.SAMPLE_BOBS + 2 * pendulum];
+            case BOB_Y -> record[SimulationLoop.SAMPLE_BOBS + 2 * pendulum + 1];
+            case ANGLE -> record[SimulationLoop.sampleBlock(SimulationLoop.SAMPLE_ANGLES, pendulumCount) + pendulum];
+            case ANGULAR_VELOCITY -> record[SimulationLoop.sampleBlock(SimulationLoop.SAMPLE_ANGULAR_VELOCITIES, pendulumCount) + pendulum];
+            case ANGULAR_ACCELERATION -> record[SimulationLoop.sampleBlock(SimulationLoop.SAMPLE_ANGULAR_ACCELERATIONS, pendulumCount) + pendulum];
+            case ENERGY -> record[SimulationLoop.sampleBlock(SimulationLoop.SAMPLE_ENERGIES, pendulumCount) + pendulum];
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package pendulum;
+
+/**
+ * Fixed-capacity ring of sample records, one primitive column per {@link Channel} and pendulum
+ * plus a shared time column.
+ *
+ * <p>Column {@code channel.ordinal() * pendulums + pendulum} holds {@code channel} of
+ * {@code pendulum}. Appending copies a row into the columns without allocating, so recording more
+ * channels only costs column width. Rows carry sequence numbers like {@link TrailBuffer}
+ * so readers can consume them incrementally; see {@link ColumnRing}.
+ */
+public class ChannelBuffer extends ColumnRing {
+
+    private static final Channel[] CHANNELS = Channel.values();
+
+    private final int pendulums;
+
+    /** With {@code valueTimes}, every value keeps its own time, see {@link #getTime(Channel, int, int)}. */
+    public ChannelBuffer(int pendulums, boolean valueTimes, int capacity) {
+        super(CHANNELS.length * pendulums, 1, valueTimes, capacity);
+        this.pendulums = pendulums;
+    }
+
+    /** Rows for {@code pendulums} pendulums that fit in {@code budgetBytes}. */
+    public static int capacityFor(long budgetBytes, int pendulums, boolean valueTimes) {
+        return ColumnRing.capacityFor(budgetBytes, CHANNELS.length * pendulums, 1, valueTimes);
+    }
+
+    // ----------------------------
+    // Getters
+    // ----------------------------
+    public int getPendulumCount() { return pendulums; }
+
+    /** Value of {@code channel} for {@code pendulum} in row {@code index}, {@code 0} being the oldest. */
+    public float get(Channel channel, int pendulum, int index) { return getValue(channel.ordinal() * pendulums + pendulum, index); }
+
+    /** Time at which that value was taken; the row time unless the buffer keeps value times. */
+    public double getTime(Channel channel, int pendulum, int index) { return getTime(channel.ordinal() * pendulums + pendulum, index); }
+}
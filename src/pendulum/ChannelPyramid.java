@@ -0,0 +1,43 @@
+package pendulum;
+
+/**
+ * Recorded channels kept at several resolutions under one memory budget, like
+ * {@link TrailPyramid}: level {@code 0} holds every sample, and each coarser level summarizes
+ * {@link #FANOUT} rows of the level below in two rows.
+ *
+ * <p>The two rows of a summary hold, for each channel of each pendulum, its smallest and largest
+ * value in the order they happened, each with the time it occurred, so peaks survive any number
+ * of levels at their true place; see {@link ColumnPyramid}. Every level gets the same memory, and
+ * a summary row also stores a time per value, so the coarsest level reaches about
+ * {@code (FANOUT / 2)^(LEVELS - 1) / 2} times further back than the full-resolution one. Every
+ * level is a {@link ChannelBuffer}.
+ */
+public class ChannelPyramid extends ColumnPyramid<ChannelBuffer> {
+
+    private static final Channel[] CHANNELS = Channel.values();
+
+    private final int pendulums;
+    private final double[] row; // one level-0 row, flattened
+
+    public ChannelPyramid(int pendulums, long budgetBytes) {
+        super(CHANNELS.length * pendulums, 1, budgetBytes, (capacity, valueTimes) -> new ChannelBuffer(pendulums, valueTimes, capacity));
+        this.pendulums = pendulums;
+        row = new double[CHANNELS.length * pendulums];
+    }
+
+    // ----------------------------
+    // Updating
+    // ----------------------------
+    /** Appends a {@link SimulationLoop} sample record. */
+    public void add(double[] record) {
+        for (Channel channel : CHANNELS) {
+            for (int p = 0; p < pendulums; p++) row[channel.ordinal() * pendulums + p] = channel.read(record, p, pendulums);
+        }
+        add(record[SimulationLoop.SAMPLE_TIME], row, 0);
+    }
+
+    // ----------------------------
+    // Getters
+    // ----------------------------
+    public int getPendulumCount() { return pendulums; }
+}
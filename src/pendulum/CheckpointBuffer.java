@@ -0,0 +1,181 @@
+package pendulum;
+
+/**
+ * Bounded ring of compact engine checkpoints, used to travel back in time.
+ *
+ * <p>A checkpoint is a flat run of doubles: the clock followed by each pendulum's state and
+ * parameters. One is taken every {@code interval} simulated seconds; once the memory budget is
+ * used up the oldest is overwritten, so the buffer always covers the most recent
+ * {@code capacity * interval} seconds. {@link #seek} restores the last checkpoint at or before
+ * the target and re-simulates the remainder, which costs at most {@code interval / deltaTime}
+ * steps however long the run has been going. Checkpoints after a seek target stay until the
+ * engine steps on from there ({@link #resume}), so seeking back and forth, as while dragging a
+ * timeline, is equally cheap in both directions.
+ *
+ * <p>Not thread-safe; {@link SimulationLoop} keeps it on the simulation thread with the engine.
+ */
+public class CheckpointBuffer {
+
+    private static final int TIME = 0;
+    private static final int STEP_COUNT = 1;
+    private static final int HEADER = 2;
+
+    // Per pendulum, in record order
+    private static final int ANGLE = 0;
+    private static final int ANGULAR_VELOCITY = 1;
+    private static final int ANGULAR_ACCELERATION = 2;
+    private static final int LENGTH = 3;
+    private static final int MASS = 4;
+    private static final int PIVOT_X = 5;
+    private static final int PIVOT_Y = 6;
+    private static final int INITIAL_ANGLE = 7;
+    private static final int INITIAL_ANGULAR_VELOCITY = 8;
+    private static final int PER_PENDULUM = 9;
+
+    private final int pendulumCount;
+    private final int recordSize;
+    private final int capacity;
+    private final double interval;
+    private final double[] data;
+    private int oldest = 0; // slot of the oldest checkpoint
+    private int size = 0;
+    private boolean branched = false; // the engine sits before the newest checkpoint after a seek
+
+    /**
+     * @param interval    simulated seconds between checkpoints
+     * @param budgetBytes memory the checkpoints may use; at least one always fits
+     */
+    public CheckpointBuffer(int pendulumCount, double interval, long budgetBytes) {
+        if (!(interval > 0)) throw new IllegalArgumentException("interval must be positive: " + interval);
+        this.pendulumCount = pendulumCount;
+        this.recordSize = HEADER + PER_PENDULUM * pendulumCount;
+        this.capacity = (int) Math.max(1, Math.min(Integer.MAX_VALUE / recordSize, budgetBytes / bytesPerCheckpoint(pendulumCount)));
+        this.interval = interval;
+        this.data = new double[capacity * recordSize];
+    }
+
+    /** Memory one checkpoint of {@code pendulumCount} pendulums takes. */
+    public static long bytesPerCheckpoint(int pendulumCount) {
+        return (long) Double.BYTES * (HEADER + PER_PENDULUM * pendulumCount);
+    }
+
+    // ----------------------------
+    // Recording
+    // ----------------------------
+    /** True when {@code engine} has moved at least one interval past the newest checkpoint. */
+    public boolean isDue(SimulationEngine engine) {
+        return size == 0 || engine.getTime() - getNewestTime() >= interval - 1e-9;
+    }
+
+    /** Records the engine's current state, first dropping any checkpoints from its future. */
+    public void capture(SimulationEngine engine) {
+        if (engine.getPendulumCount() != pendulumCount) return;
+        truncateAfter(engine.getTime());
+        if (size == capacity) {
+            oldest = (oldest + 1) % capacity;
+            size--;
+        }
+        int base = slot(size) * recordSize;
+        data[base + TIME] = engine.getTime();
+        data[base + STEP_COUNT] = engine.getStepCount();
+        for (int i = 0; i < pendulumCount; i++) {
+            Pendulum p = engine.getPendulum(i);
+            int at = base + HEADER + i * PER_PENDULUM;
+            data[at + ANGLE] = p.getAngle();
+            data[at + ANGULAR_VELOCITY] = p.getAngularVelocity();
+            data[at + ANGULAR_ACCELERATION] = p.getAngularAcceleration();
+            data[at + LENGTH] = p.getLength();
+            data[at + MASS] = p.getMass();
+            data[at + PIVOT_X] = p.getPivotX();
+            data[at + PIVOT_Y] = p.getPivotY();
+            data[at + INITIAL_ANGLE] = p.getInitialAngle();
+            data[at + INITIAL_ANGULAR_VELOCITY] = p.getInitialAngularVelocity();
+        }
+        size++;
+    }
+
+    public void clear() {
+        oldest = 0;
+        size = 0;
+        branched = false;
+    }
+
+    /**
+     * Call before stepping {@code engine}: after a seek, the checkpoints ahead of it describe a
+     * future that stepping is about to rewrite, so they are dropped now. Cheap otherwise.
+     */
+    public void resume(SimulationEngine engine) {
+        if (!branched) return;
+        truncateAfter(engine.getTime());
+        branched = false;
+    }
+
+    // ----------------------------
+    // Time travel
+    // ----------------------------
+    /**
+     * Moves {@code engine} to {@code targetTime}, clamped to the oldest checkpoint. Restores the
+     * nearest checkpoint at or before the target, unless the engine is already between it and the
+     * target, and steps forward the rest of the way. Later checkpoints are kept until
+     * {@link #resume}.
+     *
+     * @return the time the engine ended up at
+     */
+    public double seek(SimulationEngine engine, double targetTime) {
+        if (size == 0 || engine.getPendulumCount() != pendulumCount) return engine.getTime();
+        double target = Math.max(targetTime, getOldestTime());
+        int index = latestAtOrBefore(target);
+        if (target < engine.getTime() || timeAt(index) > engine.getTime()) restore(engine, index);
+        engine.runUntil(target);
+        branched = getNewestTime() > engine.getTime() + 1e-9;
+        return engine.getTime();
+    }
+
+    private void restore(SimulationEngine engine, int index) {
+        int base = slot(index) * recordSize;
+        for (int i = 0; i < pendulumCount; i++) {
+            Pendulum p = engine.getPendulum(i);
+            int at = base + HEADER + i * PER_PENDULUM;
+            p.setLength(data[at + LENGTH]);
+            p.setMass(data[at + MASS]);
+            p.setPivotX(data[at + PIVOT_X]);
+            p.setPivotY(data[at + PIVOT_Y]);
+            p.setInitialAngle(data[at + INITIAL_ANGLE]);
+            p.setInitialAngularVelocity(data[at + INITIAL_ANGULAR_VELOCITY]);
+            p.setState(data[at + ANGLE], data[at + ANGULAR_VELOCITY], data[at + ANGULAR_ACCELERATION]);
+        }
+        engine.layout();
+        engine.setClock(data[base + TIME], (long) data[base + STEP_COUNT]);
+    }
+
+    /** Index (0 = oldest) of the last checkpoint with time at or before {@code time}, or 0. */
+    private int latestAtOrBefore(double time) {
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (timeAt(mid) <= time + 1e-9) low = mid;
+            else high = mid - 1;
+        }
+        return low;
+    }
+
+    private void truncateAfter(double time) {
+        while (size > 0 && timeAt(size - 1) > time + 1e-9) size--;
+    }
+
+    private int slot(int index) { return (oldest + index) % capacity; }
+    private double timeAt(int index) { return data[slot(index) * recordSize + TIME]; }
+
+    // ----------------------------
+    // Getters
+    // ----------------------------
+    public int size() { return size; }
+    public int getCapacity() { return capacity; }
+    public double getInterval() { return interval; }
+    public long getBytesUsed() { return (long) data.length * Double.BYTES; }
+
+    /** Earliest time {@link #seek} can reach, or NaN while empty. */
+    public double getOldestTime() { return size == 0 ? Double.NaN : timeAt(0); }
+    public double getNewestTime() { return size == 0 ? Double.NaN : timeAt(size - 1); }
+}
@@ -0,0 +1,157 @@
+package pendulum;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rows kept at several resolutions under one memory budget: level {@code 0} holds every row, and
+ * each coarser level summarizes {@link #FANOUT} rows of the level below in two rows.
+ *
+ * <p>The two rows of a summary hold, for each group of columns, the group's values where its
+ * first column was smallest and largest, in the order they happened, so extremes survive any
+ * number of levels. Summary levels keep group times, and each group is stamped with the time its
+ * extreme occurred; a row's own time is the earliest of them. A row at level {@code k} stands for
+ * {@code (FANOUT / 2)^k} rows of level {@code 0} while every level gets the same memory, so recent
+ * history is exact and older history stays visible at coarser detail for a fixed total memory.
+ * Every level is a {@link ColumnRing} of the same layout, so the same readers handle any of them.
+ */
+public class ColumnPyramid<B extends ColumnRing> {
+
+    public static final int LEVELS = 6;
+    public static final int FANOUT = 8;
+
+    private final int groups;
+    private final int groupColumns;
+    private final List<B> levels = new ArrayList<>(LEVELS);
+    private final Summary[] pending = new Summary[LEVELS]; // pending[k] collects rows for level k
+
+    /** Creates one level of the pyramid. */
+    protected interface LevelFactory<B> {
+        B create(int capacity, boolean groupTimes);
+    }
+
+    /** Creates the levels through {@code newLevel}; level {@code k} gets group times when {@code k > 0}. */
+    protected ColumnPyramid(int groups, int groupColumns, long budgetBytes, LevelFactory<B> newLevel) {
+        this.groups = groups;
+        this.groupColumns = groupColumns;
+        for (int k = 0; k < LEVELS; k++) {
+            levels.add(newLevel.create(capacityFor(budgetBytes, k), k > 0));
+            if (k > 0) pending[k] = new Summary(groups, groupColumns);
+        }
+    }
+
+    private int capacityFor(long budgetBytes, int level) {
+        return ColumnRing.capacityFor(budgetBytes / LEVELS, groups, groupColumns, level > 0);
+    }
+
+    // ----------------------------
+    // Updating
+    // ----------------------------
+    /** Appends one row of level {@code 0}; column {@code c} is read from {@code row[offset + c]}. */
+    public void add(double time, double[] row, int offset) {
+        append(0, time, null, row, offset);
+    }
+
+    /** Appends a row whose group {@code g} was taken at {@code times[g]}, or all at {@code time} if {@code times} is null. */
+    private void append(int level, double time, double[] times, double[] row, int offset) {
+        levels.get(level).add(time, times, row, offset);
+        appended(level);
+
+        if (level + 1 == LEVELS) return;
+        Summary summary = pending[level + 1];
+        summary.accept(time, times, row, offset);
+        if (summary.count == FANOUT) {
+            append(level + 1, summary.firstTime, summary.firstTimes, summary.first, 0);
+            append(level + 1, summary.secondTime, summary.secondTimes, summary.second, 0);
+            summary.count = 0;
+        }
+    }
+
+    /** Called after a row was appended to {@code level}. */
+    protected void appended(int level) {
+    }
+
+    public void clear() {
+        for (int k = 0; k < LEVELS; k++) {
+            levels.get(k).clear();
+            if (pending[k] != null) pending[k].count = 0;
+        }
+    }
+
+    /** Splits {@code budgetBytes} evenly over the levels, keeping the newest rows of each. */
+    public void setBudget(long budgetBytes) {
+        for (int k = 0; k < LEVELS; k++) levels.get(k).setCapacity(capacityFor(budgetBytes, k));
+    }
+
+    // ----------------------------
+    // Getters
+    // ----------------------------
+    public B getLevel(int level) { return levels.get(level); }
+    public int getGeneration() { return levels.get(0).getGeneration(); }
+
+    /** Running summary of up to {@link #FANOUT} rows: the extremes of every group's first column and when they occurred. */
+    private static final class Summary {
+        private final int groupColumns;
+        private final double[] first;       // per group, the extreme that came first
+        private final double[] second;      // and the one that came last
+        private final double[] firstTimes;  // per group, when they occurred
+        private final double[] secondTimes;
+        private final double[] min;         // per group, its columns where the first one was smallest
+        private final double[] max;
+        private final double[] minTime;     // per group
+        private final double[] maxTime;
+        private final int[] minAt;          // row within the summary
+        private final int[] maxAt;
+        private double firstTime;           // earliest of firstTimes
+        private double secondTime;          // earliest of secondTimes
+        private int count = 0;
+
+        private Summary(int groups, int groupColumns) {
+            this.groupColumns = groupColumns;
+            first = new double[groups * groupColumns];
+            second = new double[groups * groupColumns];
+            firstTimes = new double[groups];
+            secondTimes = new double[groups];
+            min = new double[groups * groupColumns];
+            max = new double[groups * groupColumns];
+            minTime = new double[groups];
+            maxTime = new double[groups];
+            minAt = new int[groups];
+            maxAt = new int[groups];
+        }
+
+        private void accept(double time, double[] times, double[] row, int offset) {
+            for (int g = 0; g < minAt.length; g++) {
+                int base = g * groupColumns;
+                double key = row[offset + base];
+                if (count == 0 || key < min[base]) {
+                    System.arraycopy(row, offset + base, min, base, groupColumns);
+                    minTime[g] = times == null ? time : times[g];
+                    minAt[g] = count;
+                }
+                if (count == 0 || key > max[base]) {
+                    System.arraycopy(row, offset + base, max, base, groupColumns);
+                    maxTime[g] = times == null ? time : times[g];
+                    maxAt[g] = count;
+                }
+            }
+            count++;
+            if (count == FANOUT) finish();
+        }
+
+        private void finish() {
+            firstTime = Double.POSITIVE_INFINITY;
+            secondTime = Double.POSITIVE_INFINITY;
+            for (int g = 0; g < minAt.length; g++) {
+                int base = g * groupColumns;
+                boolean minFirst = minAt[g] <= maxAt[g];
+                System.arraycopy(minFirst ? min : max, base, first, base, groupColumns);
+                System.arraycopy(minFirst ? max : min, base, second, base, groupColumns);
+                firstTimes[g] = minFirst ? minTime[g] : maxTime[g];
+                secondTimes[g] = minFirst ? maxTime[g] : minTime[g];
+                firstTime = Math.min(firstTime, firstTimes[g]);
+                secondTime = Math.min(secondTime, secondTimes[g]);
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package pendulum;
+
+/**
+ * Fixed-capacity ring of rows kept in primitive columns: a shared {@code time} column and a
+ * number of float value columns, laid out by subclasses such as {@link TrailBuffer} and
+ * {@link ChannelBuffer}.
+ *
+ * <p>Values are grouped: each of {@link #getGroupCount()} groups owns {@link #getGroupColumns()}
+ * consecutive columns, so column {@code c} belongs to group {@code c / getGroupColumns()}. A row
+ * is appended from a flattened array in that column order. Appending is O(1) and allocation
+ * free; once full, each append overwrites the oldest row. Rows are read by index, {@code 0} being
+ * the oldest.
+ *
+ * <p>A ring created with group times also keeps, per group, when its values were taken, as a
+ * float offset from the row time; {@link ColumnPyramid} summaries need it because each group
+ * reaches its extremes at its own time. Without group times every group shares the row time.
+ *
+ * <p>Every row also has a sequence number that never changes while it is stored, so caches
+ * built over the ring survive appends and evictions; {@link #getGeneration()} changes whenever
+ * sequence numbers restart.
+ */
+public class ColumnRing {
+
+    private final int groups;
+    private final int groupColumns;
+    private final boolean groupTimes;
+    private float[][] values; // [column][slot]
+    private float[][] timeOffsets; // [group][slot], group time minus row time; null without group times
+    private double[] time;
+    private int start = 0; // array slot of the oldest row
+    private int size = 0;
+    private long added = 0;     // rows appended since the last clear
+    private int generation = 0; // bumped by clear
+
+    public ColumnRing(int groups, int groupColumns, boolean groupTimes, int capacity) {
+        if (groups < 1) throw new IllegalArgumentException("groups must be at least 1: " + groups);
+        if (groupColumns < 1) throw new IllegalArgumentException("groupColumns must be at least 1: " + groupColumns);
+        this.groups = groups;
+        this.groupColumns = groupColumns;
+        this.groupTimes = groupTimes;
+        allocate(capacity);
+    }
+
+    /** Rows of {@code groups * groupColumns} value columns, with or without group times, that fit in {@code budgetBytes}. */
+    public static int capacityFor(long budgetBytes, int groups, int groupColumns, boolean groupTimes) {
+        long perRow = (long) Float.BYTES * groups * (groupTimes ? groupColumns + 1 : groupColumns) + Double.BYTES;
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE - 8, budgetBytes / perRow));
+    }
+
+    private void allocate(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        values = new float[groups * groupColumns][capacity];
+        timeOffsets = groupTimes ? new float[groups][capacity] : null;
+        time = new double[capacity];
+    }
+
+    // ----------------------------
+    // Updating
+    // ----------------------------
+    /** Appends one row, evicting the oldest when full; column {@code c} is read from {@code row[offset + c]}. */
+    public void add(double rowTime, double[] row, int offset) {
+        add(rowTime, null, row, offset);
+    }
+
+    /**
+     * Appends one row whose group {@code g} was taken at {@code times[g]}, not before
+     * {@code rowTime}; a ring without group times ignores them, and {@code null} means all at
+     * {@code rowTime}.
+     */
+    public void add(double rowTime, double[] times, double[] row, int offset) {
+        int slot = append(rowTime);
+        for (int c = 0; c < values.length; c++) values[c][slot] = (float) row[offset + c];
+        if (timeOffsets != null) {
+            for (int g = 0; g < groups; g++) timeOffsets[g][slot] = times == null ? 0 : (float) (times[g] - rowTime);
+        }
+    }
+
+    /** Claims the slot of a new row, evicting the oldest row when full. */
+    private int append(double rowTime) {
+        int capacity = time.length;
+        int slot;
+        if (size < capacity) {
+            slot = slot(size);
+            size++;
+        } else {
+            slot = start;
+            start = start + 1 == capacity ? 0 : start + 1;
+        }
+        time[slot] = rowTime;
+        added++;
+        return slot;
+    }
+
+    public void clear() {
+        start = 0;
+        size = 0;
+        added = 0;
+        generation++;
+    }
+
+    /** Changes the capacity, keeping the newest rows that still fit. */
+    public void setCapacity(int capacity) {
+        if (capacity == time.length) return;
+        float[][] oldValues = values;
+        float[][] oldOffsets = timeOffsets;
+        double[] oldTime = time;
+        int oldStart = start;
+        int keep = Math.min(size, capacity);
+        int skip = size - keep;
+        allocate(capacity);
+        for (int i = 0; i < keep; i++) {
+            int from = (oldStart + skip + i) % oldTime.length;
+            for (int c = 0; c < values.length; c++) values[c][i] = oldValues[c][from];
+            if (timeOffsets != null) {
+                for (int g = 0; g < groups; g++) timeOffsets[g][i] = oldOffsets[g][from];
+            }
+            time[i] = oldTime[from];
+        }
+        start = 0;
+        size = keep;
+    }
+
+    private int slot(int index) {
+        int slot = start + index;
+        return slot >= time.length ? slot - time.length : slot;
+    }
+
+    // ----------------------------
+    // Getters
+    // ----------------------------
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public int getCapacity() { return time.length; }
+    public int getGroupCount() { return groups; }
+    public int getGroupColumns() { return groupColumns; }
+    public boolean hasGroupTimes() { return groupTimes; }
+
+    /** Sequence number of the oldest stored row; the newest is {@code getFirstSequence() + size() - 1}. */
+    public long getFirstSequence() { return added - size; }
+    public int getGeneration() { return generation; }
+
+    /** Index of the row with sequence number {@code sequence}, which must still be stored. */
+    public int indexOf(long sequence) { return (int) (sequence - getFirstSequence()); }
+
+    /** Index of the first row whose time is at least {@code time}, or {@link #size()}; times must not decrease. */
+    public int indexAtTime(double time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getTime(mid) < time) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /** Time and value of column {@code column} of row {@code index}, {@code 0} being the oldest. */
+    public double getTime(int index) { return time[slot(index)]; }
+    public float getValue(int column, int index) { return values[column][slot(index)]; }
+
+    /** Time at which group {@code group}'s values in row {@code index} were taken; never before {@link #getTime(int)}. */
+    public double getTime(int group, int index) {
+        int slot = slot(index);
+        return timeOffsets == null ? time[slot] : time[slot] + timeOffsets[group][slot];
+    }
+}
@@ -0,0 +1,205 @@
+package pendulum;
+
+/**
+ * Adaptive explicit Runge-Kutta 5(4) integrator with Dormand-Prince coefficients.
+ *
+ * <p>Each internal step produces a 5th-order solution and an embedded 4th-order one; their
+ * difference estimates the local error, which is compared against
+ * {@code absoluteTolerance + relativeTolerance * |y|} per component. Steps over the tolerance are
+ * rejected and retried smaller, accepted steps grow the next step size. The step size is kept
+ * between {@link #advance} calls, so smooth motion is crossed in a few large steps while fast or
+ * chaotic phases pay for small ones. The last stage of an accepted step is reused as the first
+ * stage of the next (FSAL).
+ *
+ * <p>Steps never shrink below {@link #MIN_STEP_ULPS} ulps of the current time, where they would
+ * stop moving it. A step that misses the tolerance at that size is accepted anyway and counted as
+ * rejected; one whose error is not even finite means the state has blown up, and throws.
+ */
+public class DormandPrinceIntegrator implements Integrator {
+
+    // Butcher tableau
+    private static final double C2 = 1.0 / 5, C3 = 3.0 / 10, C4 = 4.0 / 5, C5 = 8.0 / 9;
+    private static final double A21 = 1.0 / 5;
+    private static final double A31 = 3.0 / 40, A32 = 9.0 / 40;
+    private static final double A41 = 44.0 / 45, A42 = -56.0 / 15, A43 = 32.0 / 9;
+    private static final double A51 = 19372.0 / 6561, A52 = -25360.0 / 2187, A53 = 64448.0 / 6561, A54 = -212.0 / 729;
+    private static final double A61 = 9017.0 / 3168, A62 = -355.0 / 33, A63 = 46732.0 / 5247, A64 = 49.0 / 176, A65 = -5103.0 / 18656;
+    private static final double A71 = 35.0 / 384, A73 = 500.0 / 1113, A74 = 125.0 / 192, A75 = -2187.0 / 6784, A76 = 11.0 / 84;
+    // 5th order minus embedded 4th order weights
+    private static final double E1 = 71.0 / 57600, E3 = -71.0 / 16695, E4 = 71.0 / 1920, E5 = -17253.0 / 339200, E6 = 22.0 / 525, E7 = -1.0 / 40;
+
+    private static final double SAFETY = 0.9;
+    private static final double MIN_SCALE = 0.2;
+    private static final double MAX_SCALE = 5.0;
+    private static final double MIN_STEP_ULPS = 16; // smallest step, in ulps of the end time
+
+    private final double absoluteTolerance;
+    private final double relativeTolerance;
+    private double stepSize = Double.NaN; // carried over between advance calls
+
+    private long stepsTaken = 0;
+    private long rejectedSteps = 0;
+    private long evaluations = 0;
+
+    // Packed state y = (q, v) and stage derivatives
+    private int dimension = -1;
+    private double[] y, yStage, yNext, k1, k2, k3, k4, k5, k6, k7;
+    private double[] qBuffer, vBuffer, a;
+
+    public DormandPrinceIntegrator(double absoluteTolerance, double relativeTolerance) {
+        if (!(absoluteTolerance > 0) || !(relativeTolerance >= 0)) {
+            throw new IllegalArgumentException("tolerances must be positive");
+        }
+        this.absoluteTolerance = absoluteTolerance;
+        this.relativeTolerance = relativeTolerance;
+    }
+
+    public DormandPrinceIntegrator() {
+        this(1e-8, 1e-8);
+    }
+
+    // ----------------------------
+    // Integration
+    // ----------------------------
+    @Override
+    public void advance(MechanicalSystem system, double t, double[] q, double[] v, double dt) {
+        if (dt <= 0) return;
+        int n = system.getDimension();
+        allocate(2 * n);
+        System.arraycopy(q, 0, y, 0, n);
+        System.arraycopy(v, 0, y, n, n);
+
+        double end = t + dt;
+        double minStep = Math.ulp(end) * MIN_STEP_ULPS;
+        double h = Double.isNaN(stepSize) ? dt : Math.max(stepSize, minStep);
+        derivative(system, t, y, k1, n);
+
+        while (t < end) {
+            boolean lastStep = t + h >= end;
+            double step = lastStep ? end - t : h;
+
+            stage(y, step, k1, A21, k2, 0, k3, 0, k4, 0, k5, 0, k6, 0, yStage);
+            derivative(system, t + C2 * step, yStage, k2, n);
+            stage(y, step, k1, A31, k2, A32, k3, 0, k4, 0, k5, 0, k6, 0, yStage);
+            derivative(system, t + C3 * step, yStage, k3, n);
+            stage(y, step, k1, A41, k2, A42, k3, A43, k4, 0, k5, 0, k6, 0, yStage);
+            derivative(system, t + C4 * step, yStage, k4, n);
+            stage(y, step, k1, A51, k2, A52, k3, A53, k4, A54, k5, 0, k6, 0, yStage);
+            derivative(system, t + C5 * step, yStage, k5, n);
+            stage(y, step, k1, A61, k2, A62, k3, A63, k4, A64, k5, A65, k6, 0, yStage);
+            derivative(system, t + step, yStage, k6, n);
+            stage(y, step, k1, A71, k2, 0, k3, A73, k4, A74, k5, A75, k6, A76, yNext);
+            derivative(system, t + step, yNext, k7, n);
+
+            double error = errorNorm(step);
+            double scale;
+            if (error == 0) scale = MAX_SCALE;
+            else if (!Double.isFinite(error)) scale = MIN_SCALE;
+            else scale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, SAFETY * Math.pow(error, -0.2)));
+
+            boolean floor = step <= minStep;
+            if (floor && !Double.isFinite(error)) {
+                throw new ArithmeticException("Dormand-Prince error estimate is not finite at t = " + t);
+            }
+            if (error <= 1 || floor) {
+                if (error > 1) rejectedSteps++; // forced through at the minimum step
+                t = lastStep ? end : t + step;
+                double[] swap = y; y = yNext; yNext = swap;
+                swap = k1; k1 = k7; k7 = swap; // first same as last
+                stepsTaken++;
+                // A step shortened to land on the end says nothing new about the right size
+                if (!lastStep || step >= h) h = Math.max(step * scale, minStep);
+            } else {
+                rejectedSteps++;
+                h = Math.max(step * scale, minStep);
+            }
+        }
+        stepSize = h;
+
+        System.arraycopy(y, 0, q, 0, n);
+        System.arraycopy(y, n, v, 0, n);
+    }
+
+    private void derivative(MechanicalSystem system, double t, double[] state, double[] out, int n) {
+        // q' = v, v' = a(t, q, v)
+        System.arraycopy(state, 0, qBuffer, 0, n);
+        System.arraycopy(state, n, vBuffer, 0, n);
+        system.computeAccelerations(t, qBuffer, vBuffer, a);
+        System.arraycopy(vBuffer, 0, out, 0, n);
+        System.arraycopy(a, 0, out, n, n);
+        evaluations++;
+    }
+
+    /** {@code out = base + h * sum(w_i * s_i)}; unused stages are passed with weight 0. */
+    private static void stage(double[] base, double h,
+                              double[] s1, double w1, double[] s2, double w2, double[] s3, double w3,
+                              double[] s4, double w4, double[] s5, double w5, double[] s6, double w6,
+                              double[] out) {
+        for (int i = 0; i < base.length; i++) {
+            out[i] = base[i] + h * (w1 * s1[i] + w2 * s2[i] + w3 * s3[i] + w4 * s4[i] + w5 * s5[i] + w6 * s6[i]);
+        }
+    }
+
+    /** RMS of the scaled local error estimate; at most 1 means the step is accepted. */
+    private double errorNorm(double h) {
+        double sum = 0;
+        for (int i = 0; i < y.length; i++) {
+            double e = h * (E1 * k1[i] + E3 * k3[i] + E4 * k4[i] + E5 * k5[i] + E6 * k6[i] + E7 * k7[i]);
+            double tolerance = absoluteTolerance + relativeTolerance * Math.max(Math.abs(y[i]), Math.abs(yNext[i]));
+            double r = e / tolerance;
+            sum += r * r;
+        }
+        return Math.sqrt(sum / y.length);
+    }
+
+    // ----------------------------
+    // Buffers
+    // ----------------------------
+    private void allocate(int packedDimension) {
+        if (packedDimension == dimension) return;
+        dimension = packedDimension;
+        int n = packedDimension / 2;
+        y = new double[packedDimension];
+        yStage = new double[packedDimension];
+        yNext = new double[packedDimension];
+        k1 = new double[packedDimension];
+        k2 = new double[packedDimension];
+        k3 = new double[packedDimension];
+        k4 = new double[packedDimension];
+        k5 = new double[packedDimension];
+        k6 = new double[packedDimension];
+        k7 = new double[packedDimension];
+        a = new double[n];
+        qBuffer = new double[n];
+        vBuffer = new double[n];
+        stepSize = Double.NaN;
+    }
+
+    // ----------------------------
+    // Counters
+    // ----------------------------
+    @Override
+    public boolean isAdaptive() { return true; }
+
+    @Override
+    public String getName() { return "Dormand-Prince RK45"; }
+
+    @Override
+    public long getStepsTaken() { return stepsTaken; }
+
+    @Override
+    public long getRejectedSteps() { return rejectedSteps; }
+
+    /** Number of acceleration evaluations (six per attempted step thanks to FSAL). */
+    public long getEvaluations() { return evaluations; }
+
+    /** Step size the next internal step will try, or {@code NaN} before the first step. */
+    public double getStepSize() { return stepSize; }
+
+    @Override
+    public void resetCounters() {
+        stepsTaken = 0;
+        rejectedSteps = 0;
+        evaluations = 0;
+    }
+}
@@ -0,0 +1,130 @@
+package pendulum;
+
+/**
+ * Sine and cosine for the pendulum hot paths.
+ *
+ * <p>Angles are range-reduced to {@code [-PI, PI]} with a single floor instead of {@code %}, and
+ * {@link #wrap} keeps an already reduced angle in range after a small increment without any
+ * division at all, so a stepper can carry the reduced angle alongside the unbounded one.
+ * The array forms {@link #sin(double[], int, int, double[])} and {@link #sinCos} are for per-step
+ * loops: they check the mode once per call rather than once per angle, and {@code sinCos} reduces
+ * each angle once for both results, reading one table position for both in table mode.
+ *
+ * <p>In {@link Mode#EXACT} (the default) the reduced angle goes to {@link Math#sin} and
+ * {@link Math#cos}. {@link Mode#TABLE} instead interpolates linearly in a 4096-entry table of one
+ * period, which is several times cheaper. Its absolute error is at most
+ * {@code h^2 / 8}, about 2.9e-7, for table spacing {@code h = 2PI / 4096} (see {@link #TABLE_MAX_ERROR}),
+ * well below what the explicit integrators already introduce per step.
+ */
+public final class FastTrig {
+
+    public enum Mode { EXACT, TABLE }
+
+    private static final double TWO_PI = 2 * Math.PI;
+    private static final int TABLE_SIZE = 4096; // entries per period, a power of two
+    private static final int QUARTER = TABLE_SIZE / 4;
+    private static final double INDEX_SCALE = TABLE_SIZE / TWO_PI;
+
+    /** Upper bound on {@code |FastTrig.sin(x) - Math.sin(x)|} (likewise cos) in table mode. */
+    public static final double TABLE_MAX_ERROR = 3e-7;
+
+    // sin over [-PI, PI + PI/2] plus one guard entry, so cos can read a quarter period ahead
+    private static final double[] TABLE = new double[TABLE_SIZE + QUARTER + 1];
+    static {
+        for (int i = 0; i < TABLE.length; i++) TABLE[i] = Math.sin(-Math.PI + i / INDEX_SCALE);
+    }
+
+    private static volatile Mode mode = Mode.EXACT;
+
+    private FastTrig() {}
+
+    // ----------------------------
+    // Range reduction
+    // ----------------------------
+    /** Equivalent angle in {@code [-PI, PI]}. */
+    public static double reduce(double angle) {
+        if (angle >= -Math.PI && angle <= Math.PI) return angle;
+        return angle - TWO_PI * Math.floor((angle + Math.PI) / TWO_PI);
+    }
+
+    /** Brings {@code angle} back into {@code [-PI, PI]}; cheap when it is at most one turn outside. */
+    public static double wrap(double angle) {
+        if (angle > Math.PI) angle -= TWO_PI;
+        else if (angle < -Math.PI) angle += TWO_PI;
+        return (angle >= -Math.PI && angle <= Math.PI) ? angle : reduce(angle);
+    }
+
+    // ----------------------------
+    // Trigonometry
+    // ----------------------------
+    public static double sin(double angle) {
+        double x = reduce(angle);
+        if (mode == Mode.EXACT) return Math.sin(x);
+        return lookup(x, 0);
+    }
+
+    public static double cos(double angle) {
+        double x = reduce(angle);
+        if (mode == Mode.EXACT) return Math.cos(x);
+        return lookup(x, QUARTER); // cos(x) = sin(x + PI/2)
+    }
+
+    /** Writes the sine of {@code angle} to {@code out[0]} and its cosine to {@code out[1]}, reducing once. */
+    public static void sinCos(double angle, double[] out) {
+        double x = reduce(angle);
+        if (mode == Mode.EXACT) {
+            out[0] = Math.sin(x);
+            out[1] = Math.cos(x);
+        } else {
+            out[0] = lookup(x, 0);
+            out[1] = lookup(x, QUARTER);
+        }
+    }
+
+    /** {@code sin[i]} and {@code cos[i]} of {@code angles[i]} for {@code from <= i < to}. */
+    public static void sinCos(double[] angles, int from, int to, double[] sin, double[] cos) {
+        if (mode == Mode.EXACT) {
+            for (int i = from; i < to; i++) {
+                double x = reduce(angles[i]);
+                sin[i] = Math.sin(x);
+                cos[i] = Math.cos(x);
+            }
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            double position = (reduce(angles[i]) + Math.PI) * INDEX_SCALE;
+            int j = Math.min((int) position, TABLE_SIZE - 1);
+            double fraction = position - j;
+            double s = TABLE[j];
+            double c = TABLE[j + QUARTER];
+            sin[i] = s + (TABLE[j + 1] - s) * fraction;
+            cos[i] = c + (TABLE[j + QUARTER + 1] - c) * fraction;
+        }
+    }
+
+    /** {@code out[i]} = sine of {@code angles[i]} for {@code from <= i < to}. */
+    public static void sin(double[] angles, int from, int to, double[] out) {
+        if (mode == Mode.EXACT) {
+            for (int i = from; i < to; i++) out[i] = Math.sin(reduce(angles[i]));
+            return;
+        }
+        for (int i = from; i < to; i++) out[i] = lookup(reduce(angles[i]), 0);
+    }
+
+    private static double lookup(double reduced, int offset) {
+        double position = (reduced + Math.PI) * INDEX_SCALE;
+        int i = (int) position;
+        if (i >= TABLE_SIZE) i = TABLE_SIZE - 1; // reduced == PI lands on the last interval
+        double fraction = position - i;
+        double a = TABLE[i + offset];
+        return a + (TABLE[i + offset + 1] - a) * fraction;
+    }
+
+    // ----------------------------
+    // Getters & Setters
+    // ----------------------------
+    public static Mode getMode() { return mode; }
+
+    /** Switches every pendulum computation between exact and table trigonometry. */
+    public static void setMode(Mode mode) { FastTrig.mode = mode; }
+}
@@ -0,0 +1,125 @@
+package pendulum;
+
+/**
+ * Converts elapsed wall-clock time into a whole number of fixed-size physics steps.
+ *
+ * <p>Each call to {@link #advance(long)} adds the wall time since the previous call, scaled by
+ * {@link #getTimeScale()}, to an accumulator and returns how many steps of {@link #getStepSize()}
+ * it now covers. The remainder carries over to the next call, so simulated time tracks real time
+ * regardless of how late the caller wakes up. Work per call is capped at
+ * {@link #getMaxStepsPerFrame()} steps; any backlog beyond that is dropped instead of being
+ * carried forward, which prevents the "spiral of death" where catching up makes the next frame
+ * later still. The effect shows as a real-time factor below the requested time scale.
+ */
+public class FixedTimestepClock {
+
+    private static final long RATE_WINDOW_NANOS = 1_000_000_000L;
+
+    private final double stepSize;
+    private double timeScale;
+    private int maxStepsPerFrame;
+
+    private double accumulator = 0;
+    private long lastNanos = -1;
+    private double droppedTime = 0;
+
+    // Real-time factor, measured over roughly one second of wall time
+    private long windowStartNanos = -1;
+    private double windowSimulated = 0;
+    private double realTimeFactor = 0;
+
+    /**
+     * @param stepSize         simulated seconds per physics step
+     * @param timeScale        simulated seconds per wall-clock second
+     * @param maxStepsPerFrame most steps a single {@link #advance} call may return
+     */
+    public FixedTimestepClock(double stepSize, double timeScale, int maxStepsPerFrame) {
+        if (!(stepSize > 0)) throw new IllegalArgumentException("stepSize must be positive: " + stepSize);
+        this.stepSize = stepSize;
+        setTimeScale(timeScale);
+        setMaxStepsPerFrame(maxStepsPerFrame);
+    }
+
+    // ----------------------------
+    // Stepping
+    // ----------------------------
+    /** Returns the number of physics steps to run now, given the current {@link System#nanoTime()}. */
+    public int advance(long nowNanos) {
+        if (lastNanos < 0) {
+            lastNanos = nowNanos;
+            windowStartNanos = nowNanos;
+            return 0;
+        }
+        accumulator += (nowNanos - lastNanos) * 1e-9 * timeScale;
+        lastNanos = nowNanos;
+
+        long owed = (long) (accumulator / stepSize);
+        int steps = (int) Math.min(owed, maxStepsPerFrame);
+        accumulator -= steps * stepSize;
+        if (owed > maxStepsPerFrame) {
+            // Give up on the backlog rather than falling further behind every frame
+            double remainder = accumulator % stepSize;
+            droppedTime += accumulator - remainder;
+            accumulator = remainder;
+        }
+
+        measure(steps, nowNanos);
+        return steps;
+    }
+
+    /**
+     * Records {@code steps} taken without pacing (e.g. running as fast as possible), keeping the
+     * real-time factor current. The accumulator is cleared so that returning to {@link #advance}
+     * does not owe any catch-up.
+     */
+    public void advanceUnpaced(int steps, long nowNanos) {
+        if (lastNanos < 0) windowStartNanos = nowNanos;
+        lastNanos = nowNanos;
+        accumulator = 0;
+        measure(steps, nowNanos);
+    }
+
+    private void measure(int steps, long nowNanos) {
+        windowSimulated += steps * stepSize;
+        long windowNanos = nowNanos - windowStartNanos;
+        if (windowNanos >= RATE_WINDOW_NANOS) {
+            realTimeFactor = windowSimulated / (windowNanos * 1e-9);
+            windowSimulated = 0;
+            windowStartNanos = nowNanos;
+        }
+    }
+
+    /** Forgets elapsed wall time, e.g. while paused, so resuming does not trigger a catch-up burst. */
+    public void pause() {
+        lastNanos = -1;
+        accumulator = 0;
+        windowSimulated = 0;
+        realTimeFactor = 0;
+    }
+
+    // ----------------------------
+    // Getters & Setters
+    // ----------------------------
+    public double getStepSize() { return stepSize; }
+    public double getTimeScale() { return timeScale; }
+    public int getMaxStepsPerFrame() { return maxStepsPerFrame; }
+
+    /** Unconsumed simulated time, always less than one step after {@link #advance}. */
+    public double getAccumulator() { return accumulator; }
+
+    /** Simulated time discarded so far because the step cap was hit. */
+    public double getDroppedTime() { return droppedTime; }
+
+    /** Measured simulated seconds per wall-clock second; equals the time scale when keeping up. */
+    public double getRealTimeFactor() { return realTimeFactor; }
+
+    public void setTimeScale(double timeScale) {
+        if (!(timeScale >= 0)) throw new IllegalArgumentException("timeScale must not be negative: " + timeScale);
+        this.timeScale = timeScale;
+    }
+
+    public void setMaxStepsPerFrame(int maxStepsPerFrame) {
+        if (maxStepsPerFrame < 1) throw new IllegalArgumentException("maxStepsPerFrame must be at least 1: " + maxStepsPerFrame);
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+}
@@ -0,0 +1,99 @@
+package pendulum;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.SwingUtilities;
+
+/**
+ * Posts a frame to the Event Dispatch Thread at a fixed rate without ever letting frames pile up.
+ *
+ * <p>A plain {@code scheduleAtFixedRate(() -> invokeLater(frame))} keeps queueing frames while
+ * the EDT is busy, so one slow frame leaves a backlog of stale updates in front of user input.
+ * Here at most one frame is outstanding: a tick that finds the previous frame still queued or
+ * running is merged into it and counted as dropped. The delay between posting a frame and the
+ * EDT starting it is measured as the EDT lag.
+ */
+public class FrameScheduler {
+
+    private static final double LAG_SMOOTHING = 0.1; // weight of the newest sample in the average
+
+    private final Runnable frame;
+    private final long periodNanos;
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private final AtomicLong framesRun = new AtomicLong();
+    private volatile long postNanos;
+    private volatile long lastLagNanos = 0;
+    private volatile double averageLagNanos = 0;
+
+    private ScheduledExecutorService executor;
+
+    public FrameScheduler(Runnable frame, long periodNanos) {
+        if (periodNanos <= 0) throw new IllegalArgumentException("periodNanos must be positive: " + periodNanos);
+        this.frame = frame;
+        this.periodNanos = periodNanos;
+    }
+
+    // ----------------------------
+    // Lifecycle
+    // ----------------------------
+    public void start() {
+        if (executor != null) return;
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "frame-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::tick, 0, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void stop() {
+        if (executor == null) return;
+        executor.shutdownNow();
+        executor = null;
+    }
+
+    // ----------------------------
+    // Scheduling
+    // ----------------------------
+    private void tick() {
+        if (!pending.compareAndSet(false, true)) {
+            droppedFrames.incrementAndGet(); // merged into the frame still waiting on the EDT
+            return;
+        }
+        postNanos = System.nanoTime();
+        SwingUtilities.invokeLater(this::runFrame);
+    }
+
+    private void runFrame() {
+        long lag = System.nanoTime() - postNanos;
+        lastLagNanos = lag;
+        averageLagNanos += (lag - averageLagNanos) * LAG_SMOOTHING;
+        try {
+            frame.run();
+        } finally {
+            framesRun.incrementAndGet();
+            pending.set(false); // only now may the next tick post again
+        }
+    }
+
+    // ----------------------------
+    // Metrics
+    // ----------------------------
+    /** Frames posted to the EDT and not yet finished; 0 or 1 by construction. */
+    public int getQueueDepth() { return pending.get() ? 1 : 0; }
+
+    /** Ticks merged into an outstanding frame because the EDT had not caught up. */
+    public long getDroppedFrames() { return droppedFrames.get(); }
+    public long getFramesRun() { return framesRun.get(); }
+
+    /** Time between posting the latest frame and the EDT starting it. */
+    public long getLastLagNanos() { return lastLagNanos; }
+
+    /** Exponentially smoothed EDT lag. */
+    public double getAverageLagNanos() { return averageLagNanos; }
+    public long getPeriodNanos() { return periodNanos; }
+}
@@ -0,0 +1,47 @@
+package pendulum;
+
+/**
+ * What the simulation thread publishes for rendering: the states before and after its latest
+ * batch of steps and enough timing information to blend between them at any later instant.
+ *
+ * <p>Drawing the latest state directly makes bobs stutter whenever physics steps and frames do
+ * not line up. Instead {@link #interpolate(long)} trails the physics by one batch and blends by
+ * the accumulator remainder plus the wall time elapsed since publishing, so motion is smooth at
+ * display rate even when physics runs at a lower rate.
+ */
+public final class FrameState {
+
+    private final SimulationSnapshot previous;
+    private final SimulationSnapshot current;
+    private final long publishNanos;
+    private final double alphaAtPublish;
+    private final double spanWallNanos;
+
+    /**
+     * @param alphaAtPublish fraction of the span already accumulated when published
+     * @param spanWallNanos  wall-clock nanoseconds the span from previous to current represents, or 0 when paused
+     */
+    FrameState(SimulationSnapshot previous, SimulationSnapshot current, long publishNanos,
+               double alphaAtPublish, double spanWallNanos) {
+        this.previous = previous;
+        this.current = current;
+        this.publishNanos = publishNanos;
+        this.alphaAtPublish = alphaAtPublish;
+        this.spanWallNanos = spanWallNanos;
+    }
+
+    /** Blend factor between {@link #getPrevious()} (0) and {@link #getCurrent()} (1) at {@code nowNanos}. */
+    public double alphaAt(long nowNanos) {
+        if (previous == current || spanWallNanos <= 0) return 1;
+        double alpha = alphaAtPublish + (nowNanos - publishNanos) / spanWallNanos;
+        return Math.max(0, Math.min(1, alpha));
+    }
+
+    /** State to draw at {@code nowNanos} (normally {@link System#nanoTime()}). */
+    public SimulationSnapshot interpolate(long nowNanos) {
+        return SimulationSnapshot.interpolate(previous, current, alphaAt(nowNanos));
+    }
+
+    public SimulationSnapshot getPrevious() { return previous; }
+    public SimulationSnapshot getCurrent() { return current; }
+}
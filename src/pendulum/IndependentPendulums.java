@@ -0,0 +1,47 @@
+package pendulum;
+
+import java.util.List;
+
+/** Pendulums that each swing from their own fixed pivot with no coupling between them. */
+public class IndependentPendulums extends PendulumSystem {
+
+    // Scratch buffers, reused between evaluations
+    private double[] sin = new double[0];
+    private double[] cos = new double[0];
+
+    public IndependentPendulums(List<Pendulum> links) {
+        super(links);
+    }
+
+    @Override
+    public void computeAccelerations(double t, double[] q, double[] v, double[] a) {
+        ensureScratch(size);
+        FastTrig.sin(q, 0, size, sin);
+        for (int i = 0; i < size; i++) {
+            a[i] = -(Pendulum.GRAVITY / length[i]) * sin[i];
+        }
+    }
+
+    @Override
+    public double computeEnergy() {
+        ensureScratch(size);
+        FastTrig.sinCos(angle, 0, size, sin, cos);
+        double energy = 0;
+        for (int i = 0; i < size; i++) {
+            double speed = length[i] * angularVelocity[i];
+            energy += mass[i] * (0.5 * speed * speed - Pendulum.GRAVITY * length[i] * cos[i]);
+        }
+        return energy;
+    }
+
+    @Override
+    public void layout() {
+        for (Pendulum p : links) p.update(0);
+    }
+
+    private void ensureScratch(int n) {
+        if (sin.length >= n) return;
+        sin = new double[n];
+        cos = new double[n];
+    }
+}
@@ -0,0 +1,32 @@
+package pendulum;
+
+/**
+ * Advances a {@link MechanicalSystem} in time. Implementations may take one fixed step or
+ * several internal steps per {@link #advance} call; the counters report the steps actually taken.
+ */
+public interface Integrator {
+
+    /** Advances {@code q} and {@code v} in place from {@code t} to {@code t + dt}. */
+    public void advance(MechanicalSystem system, double t, double[] q, double[] v, double dt);
+
+    /** Whether the integrator chooses its own internal step size. */
+    public default boolean isAdaptive() { return false; }
+
+    /**
+     * Largest step this integrator is trusted with on a {@link PendulumChain}; the engine splits
+     * longer steps into equal substeps. The chain's accelerations depend on the angular
+     * velocities, so no fixed step bounds its error: the limit only keeps moderate swings from
+     * blowing up, and the adaptive integrator remains the accurate choice there.
+     */
+    public default double getMaxChainStep() { return Double.POSITIVE_INFINITY; }
+
+    public String getName();
+
+    /** Internal steps accepted since creation or the last {@link #resetCounters()}. */
+    public long getStepsTaken();
+
+    /** Internal steps thrown away because their error estimate was too large. */
+    public default long getRejectedSteps() { return 0; }
+
+    public void resetCounters();
+}
@@ -0,0 +1,127 @@
+package pendulum;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Built-in comparison of the available integrators: each one runs the panel's four pendulums,
+ * either independent or as a chain, for the same simulated time at several step sizes, and
+ * reports throughput together with the worst relative energy error seen. Run {@link #main}
+ * for a printed table.
+ *
+ * <p>The symplectic schemes only keep their bounded-energy guarantee for independent
+ * pendulums. The chain's accelerations depend on the angular velocities, and no explicit
+ * symplectic splitting applies to it, so there the adaptive integrator is the accurate option.
+ * Fixed-step integrators split steps beyond their {@link Integrator#getMaxChainStep()} on the
+ * chain, which the steps/s column counts as one engine step.
+ */
+public class IntegratorComparison {
+
+    /** One row of the comparison table. */
+    public static final class Result {
+        private final String integrator;
+        private final double deltaTime;
+        private final double stepsPerSecond;
+        private final double maxEnergyDrift;
+        private final double finalEnergyDrift;
+
+        Result(String integrator, double deltaTime, double stepsPerSecond, double maxEnergyDrift, double finalEnergyDrift) {
+            this.integrator = integrator;
+            this.deltaTime = deltaTime;
+            this.stepsPerSecond = stepsPerSecond;
+            this.maxEnergyDrift = maxEnergyDrift;
+            this.finalEnergyDrift = finalEnergyDrift;
+        }
+
+        public String getIntegrator() { return integrator; }
+        public double getDeltaTime() { return deltaTime; }
+        public double getStepsPerSecond() { return stepsPerSecond; }
+        /** Largest {@code |E - E0| / |E0|} over the run. */
+        public double getMaxEnergyDrift() { return maxEnergyDrift; }
+        public double getFinalEnergyDrift() { return finalEnergyDrift; }
+
+        @Override
+        public String toString() {
+            return String.format("%-22s dt=%-7.3f %12.0f steps/s   max drift %.2e   final drift %.2e",
+                    integrator, deltaTime, stepsPerSecond, maxEnergyDrift, finalEnergyDrift);
+        }
+    }
+
+    private static final double[] STEP_MULTIPLIERS = { 0.25, 1, 2, 4 };
+    private static final int WARMUP_RUNS = 2; // untimed, so the JIT has compiled the hot loops
+    private static final int TIMED_RUNS = 5;  // the fastest one is reported
+
+    public static List<Result> compare(double duration, boolean chained) {
+        List<Supplier<Integrator>> integrators = List.of(
+                SemiImplicitEulerIntegrator::new,
+                VelocityVerletIntegrator::new,
+                YoshidaIntegrator::new,
+                DormandPrinceIntegrator::new
+        );
+        // Warm every integrator up first, so the step loop is compiled for all of them before
+        // the first timing rather than recompiled as each new one shows up
+        for (Supplier<Integrator> factory : integrators) {
+            for (int r = 0; r < WARMUP_RUNS; r++) run(factory.get(), SimulationEngine.DEFAULT_DELTA_TIME, (long) Math.ceil(duration / SimulationEngine.DEFAULT_DELTA_TIME), chained);
+        }
+        List<Result> results = new ArrayList<>();
+        for (Supplier<Integrator> factory : integrators) {
+            for (double multiplier : STEP_MULTIPLIERS) {
+                results.add(run(factory, SimulationEngine.DEFAULT_DELTA_TIME * multiplier, duration, chained));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Runs a fresh integrator from {@code factory} {@link #WARMUP_RUNS} times untimed, then
+     * {@link #TIMED_RUNS} times, and reports the fastest timed run. Every run starts from the
+     * same state, so the energy errors are those of any single run.
+     */
+    public static Result run(Supplier<Integrator> factory, double deltaTime, double duration, boolean chained) {
+        long steps = (long) Math.ceil(duration / deltaTime);
+        for (int r = 0; r < WARMUP_RUNS; r++) run(factory.get(), deltaTime, steps, chained);
+        Result best = null;
+        for (int r = 0; r < TIMED_RUNS; r++) {
+            Result result = run(factory.get(), deltaTime, steps, chained);
+            if (best == null || result.getStepsPerSecond() > best.getStepsPerSecond()) best = result;
+        }
+        return best;
+    }
+
+    private static Result run(Integrator integrator, double deltaTime, long steps, boolean chained) {
+        SimulationEngine engine = new SimulationEngine(deltaTime);
+        engine.addPendulum(new Pendulum(200, 10, 0, 0, Math.PI / 4, 0.1));
+        engine.addPendulum(new Pendulum(200, 10, 0, 0, Math.PI / 4, -0.1));
+        engine.addPendulum(new Pendulum(200, 10, 0, 0, Math.PI / 4, 0.2));
+        engine.addPendulum(new Pendulum(100, 10, 0, 0, Math.PI / 4, -0.2));
+        engine.setChained(chained);
+        engine.setIntegrator(integrator);
+        engine.reset();
+
+        double initialEnergy = engine.getTotalEnergy();
+        double maxDrift = 0;
+        long sampleEvery = Math.max(1, steps / 1000);
+
+        long start = System.nanoTime();
+        for (long s = 1; s <= steps; s++) {
+            engine.step();
+            if (s % sampleEvery == 0) {
+                maxDrift = Math.max(maxDrift, Math.abs(engine.getTotalEnergy() - initialEnergy));
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double finalDrift = Math.abs(engine.getTotalEnergy() - initialEnergy);
+        double scale = Math.abs(initialEnergy);
+
+        return new Result(integrator.getName(), deltaTime, steps / seconds, maxDrift / scale, finalDrift / scale);
+    }
+
+    public static void main(String[] args) {
+        double duration = args.length > 0 ? Double.parseDouble(args[0]) : 10000;
+        for (boolean chained : new boolean[] { false, true }) {
+            System.out.println(chained ? "Four-link chain:" : "Independent pendulums:");
+            for (Result r : compare(duration, chained)) System.out.println("  " + r);
+        }
+    }
+}
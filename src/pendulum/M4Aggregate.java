@@ -0,0 +1,91 @@
+package pendulum;
+
+import java.util.Arrays;
+
+/**
+ * First, last, minimum and maximum value of a time series per column of a window of equal-width
+ * time columns (M4 aggregation).
+ *
+ * <p>Drawing a vertical bar from minimum to maximum in each column, and joining each column's
+ * last value to the next column's first, lights the same pixels as the full polyline when a
+ * column is one pixel wide, with at most two segments per column however many samples fall in
+ * it. Samples are folded in as they arrive, in time order; sliding the window drops whole
+ * columns from the left.
+ */
+public class M4Aggregate {
+
+    private final int columns;
+    private final float[] first;
+    private final float[] last;
+    private final float[] min;
+    private final float[] max;
+    private final boolean[] filled;
+    private double start = 0;
+    private double columnWidth = 1;
+
+    public M4Aggregate(int columns) {
+        if (columns < 1) throw new IllegalArgumentException("columns must be at least 1: " + columns);
+        this.columns = columns;
+        first = new float[columns];
+        last = new float[columns];
+        min = new float[columns];
+        max = new float[columns];
+        filled = new boolean[columns];
+    }
+
+    // ----------------------------
+    // Updating
+    // ----------------------------
+    /** Empties every column and moves the window to start at {@code start}. */
+    public void reset(double start, double columnWidth) {
+        if (!(columnWidth > 0)) throw new IllegalArgumentException("columnWidth must be positive: " + columnWidth);
+        this.start = start;
+        this.columnWidth = columnWidth;
+        Arrays.fill(filled, false);
+    }
+
+    /** Folds in one sample; samples outside the window are ignored. */
+    public void add(double time, double value) {
+        double offset = (time - start) / columnWidth;
+        if (!(offset >= 0) || offset >= columns) return;
+        int column = (int) offset;
+        float v = (float) value;
+        if (!filled[column]) {
+            filled[column] = true;
+            first[column] = v;
+            min[column] = v;
+            max[column] = v;
+        } else {
+            if (v < min[column]) min[column] = v;
+            if (v > max[column]) max[column] = v;
+        }
+        last[column] = v;
+    }
+
+    /** Moves the window {@code count} columns later, keeping the columns that stay inside it. */
+    public void slide(int count) {
+        if (count <= 0) return;
+        int keep = Math.max(0, columns - count);
+        System.arraycopy(first, count, first, 0, keep);
+        System.arraycopy(last, count, last, 0, keep);
+        System.arraycopy(min, count, min, 0, keep);
+        System.arraycopy(max, count, max, 0, keep);
+        System.arraycopy(filled, count, filled, 0, keep);
+        Arrays.fill(filled, keep, columns, false);
+        start += count * columnWidth;
+    }
+
+    // ----------------------------
+    // Getters
+    // ----------------------------
+    public int getColumns() { return columns; }
+    public double getStart() { return start; }
+    public double getEnd() { return start + columns * columnWidth; }
+    public double getColumnWidth() { return columnWidth; }
+
+    public boolean hasData(int column) { return filled[column]; }
+    public float getFirst(int column) { return first[column]; }
+    public float getLast(int column) { return last[column]; }
+    public float getMin(int column) { return min[column]; }
+    public float getMax(int column) { return max[column]; }
+}
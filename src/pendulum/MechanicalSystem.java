@@ -0,0 +1,10 @@
+package pendulum;
+
+/**
+ * A second-order system {@code q'' = a(t, q, q')}, the form every {@link Integrator} works on.
+ * Coordinates {@code q} and velocities {@code v} are plain arrays of length {@link #getDimension()}.
+ */
+public interface MechanicalSystem {
+    public int getDimension();
+    public void computeAccelerations(double t, double[] q, double[] v, double[] a);
+}
@@ -0,0 +1,113 @@
+package pendulum;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs one simple pendulum per point of an (initial angle x initial angular velocity x length)
+ * grid for a fixed horizon and collects summary metrics into a {@link SweepResult}.
+ * The grid is split recursively across a {@link ForkJoinPool}; runs are independent and
+ * write to disjoint slots of the result columns, so the work scales with the core count.
+ */
+public class ParameterSweep {
+
+    /** Runs per leaf task; large enough to amortise task overhead, small enough to balance. */
+    private static final int LEAF_SIZE = 64;
+    private static final double DEFAULT_MASS = 10;
+
+    private final SweepRange angles;
+    private final SweepRange angularVelocities;
+    private final SweepRange lengths;
+
+    public ParameterSweep(SweepRange angles, SweepRange angularVelocities, SweepRange lengths) {
+        SweepResult.runCount(angles, angularVelocities, lengths); // rejects grids too large to hold
+        this.angles = angles;
+        this.angularVelocities = angularVelocities;
+        this.lengths = lengths;
+    }
+
+    public int getRunCount() {
+        return SweepResult.runCount(angles, angularVelocities, lengths);
+    }
+
+    // ----------------------------
+    // Running
+    // ----------------------------
+    public SweepResult run(double horizon, double deltaTime) {
+        return run(horizon, deltaTime, ForkJoinPool.commonPool());
+    }
+
+    public SweepResult run(double horizon, double deltaTime, ForkJoinPool pool) {
+        if (!(deltaTime > 0)) throw new IllegalArgumentException("deltaTime must be positive: " + deltaTime);
+        if (!(horizon >= 0)) throw new IllegalArgumentException("horizon must not be negative: " + horizon);
+        long steps = (long) Math.ceil(horizon / deltaTime - 1e-9);
+        if (steps > Integer.MAX_VALUE) throw new IllegalArgumentException("too many steps per run: " + steps);
+        SweepResult result = new SweepResult(angles, angularVelocities, lengths);
+        pool.invoke(new SweepTask(result, 0, result.size(), (int) steps, deltaTime));
+        return result;
+    }
+
+    private static final class SweepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SweepResult result;
+        private final int from;
+        private final int to;
+        private final int steps;
+        private final double deltaTime;
+
+        SweepTask(SweepResult result, int from, int to, int steps, double deltaTime) {
+            this.result = result;
+            this.from = from;
+            this.to = to;
+            this.steps = steps;
+            this.deltaTime = deltaTime;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                Pendulum p = new Pendulum(1, DEFAULT_MASS, 0, 0, 0, 0);
+                for (int k = from; k < to; k++) runOne(p, k);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SweepTask(result, from, mid, steps, deltaTime),
+                      new SweepTask(result, mid, to, steps, deltaTime));
+        }
+
+        private void runOne(Pendulum p, int k) {
+            p.setLength(result.getLength(k));
+            p.setInitialAngle(result.getInitialAngle(k));
+            p.setInitialAngularVelocity(result.getInitialAngularVelocity(k));
+            p.reset();
+
+            double maxAngle = Math.abs(p.getAngle());
+            double previousAngle = p.getAngle();
+            // Zero crossings alternate direction, so crossings 1 and 3 are one period apart
+            double firstCrossing = Double.NaN;
+            int crossings = 0;
+            double period = Double.NaN;
+
+            for (int s = 1; s <= steps; s++) {
+                p.update(deltaTime);
+                double angle = p.getAngle();
+                maxAngle = Math.max(maxAngle, Math.abs(angle));
+
+                if (crossings < 3 && (previousAngle < 0) != (angle < 0)) {
+                    double fraction = previousAngle / (previousAngle - angle);
+                    double crossingTime = (s - 1 + fraction) * deltaTime;
+                    crossings++;
+                    if (crossings == 1) firstCrossing = crossingTime;
+                    else if (crossings == 3) period = crossingTime - firstCrossing;
+                }
+                previousAngle = angle;
+            }
+
+            result.finalAngle[k] = p.getAngle();
+            result.finalAngularVelocity[k] = p.getAngularVelocity();
+            result.maxAngle[k] = maxAngle;
+            result.period[k] = period;
+        }
+    }
+}
@@ -8,6 +8,8 @@ import pendulum.uielements.Utils;
 
 public class Pendulum {
 
+    public static final double GRAVITY = 9.81; // gravitational acceleration
+
     // ----------------------------
     // Fields
     // ----------------------------
@@ -25,6 +27,12 @@ public class Pendulum {
     private int bobX;
     private int bobY;
 
+    // Angle kept in [-PI, PI] alongside the unbounded one, with its sine and cosine,
+    // so each step evaluates the trigonometry once
+    private double reducedAngle;
+    private double sinAngle;
+    private double cosAngle;
+
     // ----------------------------
     // Constructor
     // ----------------------------
@@ -38,28 +46,50 @@ public class Pendulum {
         this.angularVelocity = initialAngularVelocity;
         this.initialAngularVelocity = initialAngularVelocity;
         this.angularAcceleration = 0;
-        setBobPosition();
+        syncAngle();
     }
 
     // ----------------------------
     // Simulation Update
     // ----------------------------
     public void update(double deltaTime) {
-        double gravity = 9.81; // gravitational acceleration
         double damping = 0.0; // friction coefficient, tweak as needed
 
-        angularAcceleration = -(gravity / length) * Math.sin(angle%(2*Math.PI));
+        angularAcceleration = -(GRAVITY / length) * sinAngle;
         angularVelocity += angularAcceleration * deltaTime;
         angularVelocity *= (1 - damping);
-        angle += angularVelocity * deltaTime;
+        double deltaAngle = angularVelocity * deltaTime;
+        angle += deltaAngle;
+        reducedAngle = FastTrig.wrap(reducedAngle + deltaAngle);
 
-        setBobPosition();
+        updateTrig();
+    }
+
+    /**
+     * Overwrites the integrated state, e.g. with values from a coupled solver such as
+     * {@link PendulumChain}, and refreshes the bob position.
+     */
+    public void setState(double angle, double angularVelocity, double angularAcceleration) {
+        this.angle = angle;
+        this.angularVelocity = angularVelocity;
+        this.angularAcceleration = angularAcceleration;
+        syncAngle();
     }
 
     // ----------------------------
     // Drawing
     // ----------------------------
     public void drawLine(Graphics g, int offsetX, int offsetY, double zoom) {
+        drawLine(g, pivotX, pivotY, bobX, bobY, offsetX, offsetY, zoom);
+    }
+
+    public void drawBob(Graphics2D g2, int offsetX, int offsetY, double zoom) {
+        drawBob(g2, bobX, bobY, bobColor, offsetX, offsetY, zoom);
+    }
+
+    /** Draws a rod between arbitrary endpoints, e.g. ones taken from a {@link SimulationSnapshot}. */
+    public static void drawLine(Graphics g, double pivotX, double pivotY, double bobX, double bobY,
+                                int offsetX, int offsetY, double zoom) {
         Graphics2D g2 = (Graphics2D) g;
 
         // Scale endpoints
@@ -74,7 +104,8 @@ public class Pendulum {
         g2.drawLine(scaledPivotX, scaledPivotY, scaledBobX, scaledBobY);
     }
 
-    public void drawBob(Graphics2D g2, int offsetX, int offsetY, double zoom) {
+    public static void drawBob(Graphics2D g2, double bobX, double bobY, Color bobColor,
+                               int offsetX, int offsetY, double zoom) {
         // Draw bob (circle)
         int scaledBobX   = (int) (bobX * zoom)   + offsetX;
         int scaledBobY   = (int) (bobY * zoom)   + offsetY;
@@ -98,6 +129,7 @@ public class Pendulum {
     public void reset() {
         angle = initialAngle;
         angularVelocity = initialAngularVelocity;
+        syncAngle();
         update(0);
     }
 
@@ -105,16 +137,28 @@ public class Pendulum {
     // Bob Position
     // ----------------------------
     private void setBobPosition() {
-        bobX = (int) (pivotX + length * Math.sin(angle%(2*Math.PI)));
-        bobY = (int) (pivotY + length * Math.cos(angle%(2*Math.PI)));
+        bobX = (int) (pivotX + length * sinAngle);
+        bobY = (int) (pivotY + length * cosAngle);
+    }
+
+    /** Recomputes the reduced angle from scratch after {@link #angle} was set rather than stepped. */
+    private void syncAngle() {
+        reducedAngle = FastTrig.reduce(angle);
+        updateTrig();
+    }
+
+    private void updateTrig() {
+        sinAngle = FastTrig.sin(reducedAngle);
+        cosAngle = FastTrig.cos(reducedAngle);
+        setBobPosition();
     }
 
     // ----------------------------
     // Data Retrieval
     // ----------------------------
-    public List<DataElement> getPendulumData() {
+    public List<DataElement> getPendulumData(double time) {
         List<DataElement> elements = new ArrayList<>();
-        elements.add(new DataElement(false, PendulumPanel.getTime(), "Time"));
+        elements.add(new DataElement(false, time, "Time"));
         elements.add(new DataElement(false, getAngularAcceleration(), "Angular Acceleration"));
         elements.add(new DataElement(false, getBobX(), "Bob X"));
         elements.add(new DataElement(false, getBobY(), "Bob Y"));
@@ -145,8 +189,8 @@ public class Pendulum {
     public int getBobX() { return bobX; }
     public int getBobY() { return bobY; }
 
-    public double getVelocityX() {return angularVelocity*length*Math.cos(angle%(2*Math.PI));}
-    public double getVelocityY() {return angularVelocity*length*Math.sin(angle%(2*Math.PI));}
+    public double getVelocityX() {return angularVelocity*length*cosAngle;}
+    public double getVelocityY() {return angularVelocity*length*sinAngle;}
 
     // ----------------------------
     // Setters
@@ -155,7 +199,8 @@ public class Pendulum {
     public void setMass(double mass) { this.mass = mass; }
     public void setPivotX(double pivotX) { this.pivotX = pivotX; }
     public void setPivotY(double pivotY) { this.pivotY = pivotY; }
-    public void setAngle(double angle) { this.angle = angle; }
+    public void setPivot(double pivotX, double pivotY) { this.pivotX = pivotX; this.pivotY = pivotY; setBobPosition(); }
+    public void setAngle(double angle) { this.angle = angle; syncAngle(); }
     public void setInitialAngle(double initialAngle) { this.initialAngle = initialAngle; }
     public void setAngularVelocity(double angularVelocity) { this.angularVelocity = angularVelocity; }
     public void setInitialAngularVelocity(double initialAngularVelocity) { this.initialAngularVelocity = initialAngularVelocity; }
@@ -0,0 +1,138 @@
+package pendulum;
+
+import java.util.List;
+
+/**
+ * Coupled solver for a planar chain of point-mass pendulums joined by rigid, massless rods.
+ * Link 0 hangs from its own pivot and every following link hangs from the previous bob.
+ *
+ * <p>Instead of building and inverting the N x N mass matrix, the solver works with the rod
+ * tensions. Requiring each rod to keep its length gives one equation per rod that involves only
+ * the tensions of that rod and its two neighbours, so the tensions come out of a tridiagonal
+ * system solved in O(N). The bob accelerations, and from them the angular accelerations, then
+ * follow directly from the forces on each bob.
+ *
+ * <p>The chain works on the engine's {@link Pendulum} objects through {@link PendulumSystem}:
+ * writing the state back also re-pins every pivot to the previous bob.
+ */
+public class PendulumChain extends PendulumSystem {
+
+    // Scratch buffers, reused between evaluations
+    private double[] sin = new double[0];
+    private double[] cos = new double[0];
+    private double[] tension = new double[0];
+    private double[] upper = new double[0];
+    private double[] rhs = new double[0];
+    private final double[] sinCos = new double[2];
+
+    public PendulumChain(List<Pendulum> links) {
+        super(links);
+    }
+
+    // ----------------------------
+    // Dynamics
+    // ----------------------------
+    @Override
+    public void computeAccelerations(double t, double[] q, double[] v, double[] a) {
+        computeAccelerations(size, q, v, length, mass, a);
+    }
+
+    /**
+     * Computes the angular acceleration of every link of an {@code n}-link chain in O(n).
+     * Angles are measured from the downward vertical, as in {@link Pendulum}.
+     */
+    public void computeAccelerations(int n, double[] angle, double[] angularVelocity,
+                                     double[] length, double[] mass, double[] out) {
+        ensureScratch(n);
+        if (n == 0) return;
+        final double g = Pendulum.GRAVITY;
+
+        FastTrig.sinCos(angle, 0, n, sin, cos);
+
+        // Tridiagonal system for the rod tensions (Thomas algorithm).
+        // Row i: lower_i * T[i-1] + diag_i * T[i] + upper_i * T[i+1] = rhs_i
+        double prevUpper = 0;
+        double prevRhs = 0;
+        for (int i = 0; i < n; i++) {
+            double invMass = 1.0 / mass[i];
+            double invParentMass = i > 0 ? 1.0 / mass[i - 1] : 0;
+            double lower = i > 0 ? -cosBetween(i - 1, i) * invParentMass : 0;
+            double diag = invMass + invParentMass;
+            double up = i < n - 1 ? -cosBetween(i, i + 1) * invMass : 0;
+            double r = length[i] * angularVelocity[i] * angularVelocity[i] + (i == 0 ? g * cos[0] : 0);
+
+            double denominator = diag - lower * prevUpper;
+            prevUpper = up / denominator;
+            prevRhs = (r - lower * prevRhs) / denominator;
+            upper[i] = prevUpper;
+            rhs[i] = prevRhs;
+        }
+        tension[n - 1] = rhs[n - 1];
+        for (int i = n - 2; i >= 0; i--) {
+            tension[i] = rhs[i] - upper[i] * tension[i + 1];
+        }
+
+        // Bob accelerations from gravity and the two rod forces, projected on each rod's tangent
+        double parentAx = 0;
+        double parentAy = 0;
+        for (int i = 0; i < n; i++) {
+            double childTension = i < n - 1 ? tension[i + 1] : 0;
+            double childSin = i < n - 1 ? sin[i + 1] : 0;
+            double childCos = i < n - 1 ? cos[i + 1] : 0;
+            double ax = (-tension[i] * sin[i] + childTension * childSin) / mass[i];
+            double ay = g + (-tension[i] * cos[i] + childTension * childCos) / mass[i];
+
+            // Tangent of rod i is d(sin, cos)/d(angle) = (cos, -sin)
+            out[i] = ((ax - parentAx) * cos[i] - (ay - parentAy) * sin[i]) / length[i];
+            parentAx = ax;
+            parentAy = ay;
+        }
+    }
+
+    @Override
+    public double computeEnergy() {
+        ensureScratch(size);
+        FastTrig.sinCos(angle, 0, size, sin, cos);
+        double energy = 0;
+        double y = 0, vx = 0, vy = 0; // bob height and velocity relative to link 0's pivot
+        for (int i = 0; i < size; i++) {
+            double s = sin[i];
+            double c = cos[i];
+            y += length[i] * c;
+            vx += length[i] * angularVelocity[i] * c;
+            vy -= length[i] * angularVelocity[i] * s;
+            energy += mass[i] * (0.5 * (vx * vx + vy * vy) - Pendulum.GRAVITY * y);
+        }
+        return energy;
+    }
+
+    private double cosBetween(int i, int j) {
+        return sin[i] * sin[j] + cos[i] * cos[j];
+    }
+
+    // ----------------------------
+    // Layout
+    // ----------------------------
+    /** Pins every link's pivot to the previous link's bob, keeping link 0's own pivot. */
+    @Override
+    public void layout() {
+        if (links.isEmpty()) return;
+        double x = links.get(0).getPivotX();
+        double y = links.get(0).getPivotY();
+        for (Pendulum p : links) {
+            p.setPivot(x, y);
+            FastTrig.sinCos(p.getAngle(), sinCos);
+            x += p.getLength() * sinCos[0];
+            y += p.getLength() * sinCos[1];
+        }
+    }
+
+    private void ensureScratch(int n) {
+        if (sin.length >= n) return;
+        sin = new double[n];
+        cos = new double[n];
+        tension = new double[n];
+        upper = new double[n];
+        rhs = new double[n];
+    }
+}
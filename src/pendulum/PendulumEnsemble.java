@@ -0,0 +1,222 @@
+package pendulum;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Structure-of-arrays store for large numbers of independent simple pendulums.
+ * Every property lives in its own primitive column, so {@link #step(double)} is a
+ * single pass over contiguous {@code double[]} data with no object indirection.
+ * Individual members can be copied to and from ordinary {@link Pendulum} objects
+ * for inspection in the UI.
+ */
+public class PendulumEnsemble {
+
+    // ----------------------------
+    // Columns
+    // ----------------------------
+    private double[] length;
+    private double[] mass;
+    private double[] pivotX;
+    private double[] pivotY;
+    private double[] angle;
+    private double[] initialAngle;
+    private double[] angularVelocity;
+    private double[] initialAngularVelocity;
+    private double[] angularAcceleration;
+    private double[] sinAngle; // scratch for step
+
+    private int size = 0;
+
+    // ----------------------------
+    // Constructors
+    // ----------------------------
+    public PendulumEnsemble(int initialCapacity) {
+        allocate(Math.max(initialCapacity, 1));
+    }
+
+    /** Builds an ensemble holding a copy of each given pendulum, in order. */
+    public static PendulumEnsemble of(List<Pendulum> pendulums) {
+        PendulumEnsemble ensemble = new PendulumEnsemble(pendulums.size());
+        for (Pendulum p : pendulums) ensemble.add(p);
+        return ensemble;
+    }
+
+    private void allocate(int capacity) {
+        length = new double[capacity];
+        mass = new double[capacity];
+        pivotX = new double[capacity];
+        pivotY = new double[capacity];
+        angle = new double[capacity];
+        initialAngle = new double[capacity];
+        angularVelocity = new double[capacity];
+        initialAngularVelocity = new double[capacity];
+        angularAcceleration = new double[capacity];
+        sinAngle = new double[capacity];
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= length.length) return;
+        int newCapacity = Math.max(capacity, length.length * 2);
+        length = Arrays.copyOf(length, newCapacity);
+        mass = Arrays.copyOf(mass, newCapacity);
+        pivotX = Arrays.copyOf(pivotX, newCapacity);
+        pivotY = Arrays.copyOf(pivotY, newCapacity);
+        angle = Arrays.copyOf(angle, newCapacity);
+        initialAngle = Arrays.copyOf(initialAngle, newCapacity);
+        angularVelocity = Arrays.copyOf(angularVelocity, newCapacity);
+        initialAngularVelocity = Arrays.copyOf(initialAngularVelocity, newCapacity);
+        angularAcceleration = Arrays.copyOf(angularAcceleration, newCapacity);
+        sinAngle = new double[newCapacity];
+    }
+
+    // ----------------------------
+    // Adding members
+    // ----------------------------
+    /** Same arguments as the {@link Pendulum} constructor. Returns the new member's index. */
+    public int add(double length, double mass, double pivotX, double pivotY, double initialAngle, double initialAngularVelocity) {
+        ensureCapacity(size + 1);
+        int i = size++;
+        this.length[i] = length;
+        this.mass[i] = mass;
+        this.pivotX[i] = pivotX;
+        this.pivotY[i] = pivotY;
+        this.angle[i] = initialAngle;
+        this.initialAngle[i] = initialAngle;
+        this.angularVelocity[i] = initialAngularVelocity;
+        this.initialAngularVelocity[i] = initialAngularVelocity;
+        this.angularAcceleration[i] = -(Pendulum.GRAVITY / length) * FastTrig.sin(initialAngle);
+        return i;
+    }
+
+    /** Adds a copy of the pendulum's current state. Returns the new member's index. */
+    public int add(Pendulum p) {
+        int i = add(p.getLength(), p.getMass(), p.getPivotX(), p.getPivotY(), p.getInitialAngle(), p.getInitialAngularVelocity());
+        angle[i] = p.getAngle();
+        angularVelocity[i] = p.getAngularVelocity();
+        angularAcceleration[i] = p.getAngularAcceleration();
+        return i;
+    }
+
+    // ----------------------------
+    // Simulation Update
+    // ----------------------------
+    /** Advances every member with the same semi-implicit Euler step as {@link Pendulum#update(double)}. */
+    public void step(double deltaTime) {
+        step(deltaTime, 0, size);
+    }
+
+    /** Advances members {@code from} (inclusive) to {@code to} (exclusive). */
+    public void step(double deltaTime, int from, int to) {
+        final double[] length = this.length;
+        final double[] angle = this.angle;
+        final double[] angularVelocity = this.angularVelocity;
+        final double[] angularAcceleration = this.angularAcceleration;
+        final double[] sinAngle = this.sinAngle;
+        FastTrig.sin(angle, from, to, sinAngle);
+        for (int i = from; i < to; i++) {
+            double a = -(Pendulum.GRAVITY / length[i]) * sinAngle[i];
+            double w = angularVelocity[i] + a * deltaTime;
+            angularAcceleration[i] = a;
+            angularVelocity[i] = w;
+            angle[i] += w * deltaTime;
+        }
+    }
+
+    public void stepN(double deltaTime, int steps) {
+        for (int s = 0; s < steps; s++) step(deltaTime);
+    }
+
+    /**
+     * Sets every member to its exact state at {@code time} from its initial conditions, see
+     * {@link AnalyticPendulum}. Costs the same for any {@code time}, unlike stepping there.
+     */
+    public void evaluateAt(double time) {
+        double[] out = new double[2];
+        for (int i = 0; i < size; i++) {
+            new AnalyticPendulum(length[i], initialAngle[i], initialAngularVelocity[i]).evaluate(time, out);
+            angle[i] = out[0];
+            angularVelocity[i] = out[1];
+            angularAcceleration[i] = -(Pendulum.GRAVITY / length[i]) * FastTrig.sin(out[0]);
+        }
+    }
+
+    // ----------------------------
+    // Reset
+    // ----------------------------
+    public void reset() {
+        System.arraycopy(initialAngle, 0, angle, 0, size);
+        System.arraycopy(initialAngularVelocity, 0, angularVelocity, 0, size);
+        for (int i = 0; i < size; i++) {
+            angularAcceleration[i] = -(Pendulum.GRAVITY / length[i]) * FastTrig.sin(angle[i]);
+        }
+    }
+
+    // ----------------------------
+    // Pendulum interop
+    // ----------------------------
+    /** Creates a standalone {@link Pendulum} carrying member {@code i}'s current state. */
+    public Pendulum toPendulum(int i) {
+        Pendulum p = new Pendulum(length[i], mass[i], pivotX[i], pivotY[i], initialAngle[i], initialAngularVelocity[i]);
+        copyTo(i, p);
+        return p;
+    }
+
+    /** Overwrites {@code target} with member {@code i}'s current state. */
+    public void copyTo(int i, Pendulum target) {
+        target.setLength(length[i]);
+        target.setMass(mass[i]);
+        target.setPivotX(pivotX[i]);
+        target.setPivotY(pivotY[i]);
+        target.setInitialAngle(initialAngle[i]);
+        target.setInitialAngularVelocity(initialAngularVelocity[i]);
+        target.setAngle(angle[i]);
+        target.setAngularVelocity(angularVelocity[i]);
+        target.update(0); // refresh acceleration and bob position without advancing
+    }
+
+    /** Overwrites member {@code i} with {@code source}'s current state. */
+    public void copyFrom(int i, Pendulum source) {
+        length[i] = source.getLength();
+        mass[i] = source.getMass();
+        pivotX[i] = source.getPivotX();
+        pivotY[i] = source.getPivotY();
+        initialAngle[i] = source.getInitialAngle();
+        initialAngularVelocity[i] = source.getInitialAngularVelocity();
+        angle[i] = source.getAngle();
+        angularVelocity[i] = source.getAngularVelocity();
+        angularAcceleration[i] = source.getAngularAcceleration();
+    }
+
+    // ----------------------------
+    // Getters (same names as Pendulum, indexed by member)
+    // ----------------------------
+    public int size() { return size; }
+
+    public double getLength(int i) { return length[i]; }
+    public double getMass(int i) { return mass[i]; }
+    public double getPivotX(int i) { return pivotX[i]; }
+    public double getPivotY(int i) { return pivotY[i]; }
+    public double getAngle(int i) { return angle[i]; }
+    public double getInitialAngle(int i) { return initialAngle[i]; }
+    public double getAngularVelocity(int i) { return angularVelocity[i]; }
+    public double getInitialAngularVelocity(int i) { return initialAngularVelocity[i]; }
+    public double getAngularAcceleration(int i) { return angularAcceleration[i]; }
+    public double getBobX(int i) { return pivotX[i] + length[i] * FastTrig.sin(angle[i]); }
+    public double getBobY(int i) { return pivotY[i] + length[i] * FastTrig.cos(angle[i]); }
+
+    public double getVelocityX(int i) { return angularVelocity[i] * length[i] * FastTrig.cos(angle[i]); }
+    public double getVelocityY(int i) { return angularVelocity[i] * length[i] * FastTrig.sin(angle[i]); }
+
+    // ----------------------------
+    // Setters
+    // ----------------------------
+    public void setLength(int i, double length) { this.length[i] = length; }
+    public void setMass(int i, double mass) { this.mass[i] = mass; }
+    public void setPivotX(int i, double pivotX) { this.pivotX[i] = pivotX; }
+    public void setPivotY(int i, double pivotY) { this.pivotY[i] = pivotY; }
+    public void setAngle(int i, double angle) { this.angle[i] = angle; }
+    public void setInitialAngle(int i, double initialAngle) { this.initialAngle[i] = initialAngle; }
+    public void setAngularVelocity(int i, double angularVelocity) { this.angularVelocity[i] = angularVelocity; }
+    public void setInitialAngularVelocity(int i, double initialAngularVelocity) { this.initialAngularVelocity[i] = initialAngularVelocity; }
+}
@@ -2,20 +2,21 @@ package pendulum;
 
 import java.awt.*;
 import java.awt.event.*;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import javax.swing.*;
 import pendulum.uielements.Button;
 import pendulum.uielements.DataSet;
 import pendulum.uielements.Graph;
+import pendulum.uielements.PhasePortrait;
 import pendulum.uielements.Label;
 import pendulum.uielements.RoundedTextField;
 import pendulum.uielements.Section;
 import pendulum.uielements.TextFieldUtils;
+import pendulum.uielements.Timeline;
+import pendulum.uielements.Tooltip;
 import pendulum.uielements.UIColors;
 import pendulum.uielements.Utils;
 
@@ -47,15 +48,26 @@ public final class PendulumPanel extends JPanel {
     public static void setSIM_WIDTH(int SIM_WIDTH) { PendulumPanel.SIM_WIDTH = SIM_WIDTH; }
 
     // Simulation state
-    private static final int TRAIL_LIMIT = 5000;
-    private static final double DELTA_TIME = 0.16;
-    private static double time = 0;
-    public static double getTime() { return time; }
+    private static final long TRAIL_BUDGET = 2 << 20; // bytes shared by all trails and levels, see setTrailBudget
+    private static final long CHANNEL_BUDGET = 8 << 20; // bytes of recorded channels behind the graph, all levels
+    private static final int PHYSICS_SUBSTEPS = 8; // engine steps per original 0.16 s tick
+    private final SimulationEngine engine = new SimulationEngine(SimulationEngine.DEFAULT_DELTA_TIME / PHYSICS_SUBSTEPS);
+    private SimulationLoop simulationLoop;
+    private static final long FRAME_NANOS = 16_000_000L;
+    private final FrameScheduler frameScheduler = new FrameScheduler(() -> {
+        updateFrame();
+        repaint();
+    }, FRAME_NANOS);
+    private SimulationSnapshot snapshot; // interpolated state, captured once per paint
+    private double[] sampleRecord;
+    private int trailEpoch = 0;
 
     private boolean isRunning = true;
     private boolean cameraFollow = false;
     private boolean tracing = false;
     private boolean showArrow = false;
+    private static final double[] WARP_LEVELS = {1, 10, 100, SimulationLoop.WARP_MAX};
+    private int warpLevel = 0;
 
 
     // Pendulums
@@ -64,15 +76,50 @@ public final class PendulumPanel extends JPanel {
     private final Pendulum pendulum2 = new Pendulum(200, 10, 0, 0, Math.PI / 4, -0.1);
     private final Pendulum pendulum3 = new Pendulum(200, 10, 0, 0, Math.PI / 4, 0.2);
     private final Pendulum pendulum4 = new Pendulum(100, 10, 0, 0, Math.PI / 4, -0.2);
-    private final List<Pendulum> pendulums = new ArrayList<>();
+    private final List<Pendulum> pendulums = engine.getPendulums();
 
     private void setupPendulums() {
-        pendulums.add(pendulum1);
-        pendulums.add(pendulum2);
-        pendulums.add(pendulum3);
-        pendulums.add(pendulum4);
+        engine.addPendulum(pendulum1);
+        engine.addPendulum(pendulum2);
+        engine.addPendulum(pendulum3);
+        engine.addPendulum(pendulum4);
+        engine.setChained(true);
+
+        // From here on the engine belongs to the simulation thread
+        simulationLoop = new SimulationLoop(engine);
+        snapshot = simulationLoop.getSnapshot();
+        sampleRecord = new double[simulationLoop.getSamples().getRecordSize()];
+    }
+    // One track per pendulum, so every bob keeps its own history, older history at coarser levels
+    private TrailPyramid trail;
+    private final TrailLayer trailLayer = new TrailLayer();
+    private BasicStroke trailHeadStroke; // for the segments joining the trail to the bobs, cached per zoom
+    private TrailHistory trailHistory; // the whole run, spilled to disk; null if it could not be created
+    private final TrailIndex trailIndex = new TrailIndex(); // over the full-resolution level, for hovering
+    private ChannelPyramid channels; // every graphable quantity of every pendulum, older history at coarser levels
+    private PhaseHistogram phaseHistogram; // every sample of the epoch, as angle / angular velocity counts
+
+    private void setupTrail() {
+        int tracks = engine.getPendulumCount();
+        trail = new TrailPyramid(tracks, TRAIL_BUDGET);
+        channels = new ChannelPyramid(tracks, CHANNEL_BUDGET);
+        graph = new Graph(
+                GRAPH_X, GRAPH_Y, GRAPH_WIDTH, GRAPH_HEIGHT, GRAPH_STROKE,
+                UIColors.GRAPH_BACKGROUND.toColor(), UIColors.GRID.toColor(), channels
+        );
+        graph.setPendulum(selectedPendulum - 1);
+        phaseHistogram = new PhaseHistogram(tracks, PHASE_RESOLUTION);
+        phasePortrait = new PhasePortrait(PHASE_X, PHASE_Y, PHASE_SIZE, PHASE_SIZE, GRAPH_STROKE, phaseHistogram);
+        phasePortrait.setPendulum(selectedPendulum - 1);
+        try {
+            trailHistory = TrailHistory.createTemporary(tracks);
+        } catch (IOException e) {
+            System.out.println("Error creating trail history: " + e.getMessage());
+        }
     }
-    private final List<TrailPoint> trail = new ArrayList<>();
+
+    /** Memory shared by all pendulums' trails and levels; call on the EDT. Hundreds of megabytes are fine, the trail is primitive columns. */
+    public void setTrailBudget(long bytes) { trail.setBudget(bytes); }
 
     // GUI Elements
     private JTextField textField;
@@ -99,19 +146,10 @@ public final class PendulumPanel extends JPanel {
     private int buttonNameIndexSelected = 0;
     private double userValue = 0;
 
-    private List<DataElement> dataElements = pendulum1.getPendulumData();
+    private List<DataElement> dataElements = pendulum1.getPendulumData(0);
     private List<Label> labels = new ArrayList<>();
 
-    private List<Consumer<Double>> pendulumSetters = List.of(
-            pendulum1::setLength,
-            pendulum1::setMass,
-            pendulum1::setPivotX,
-            pendulum1::setPivotY,
-            pendulum1::setAngle,
-            pendulum1::setInitialAngle,
-            pendulum1::setAngularVelocity,
-            pendulum1::setInitialAngularVelocity
-    );
+    private List<Consumer<Double>> pendulumSetters = List.of();
 
     private final String pausePath = "src\\pendulum\\resources\\images\\pause.png";
     private final String playPath = "src\\pendulum\\resources\\images\\play.png";
@@ -137,11 +175,30 @@ public final class PendulumPanel extends JPanel {
     private static final int GRAPH_HEIGHT = GRAPH_WIDTH;
     private static final int GRAPH_STROKE = 2;
 
-    private Graph graph = new Graph(
-            GRAPH_X, GRAPH_Y, GRAPH_WIDTH, GRAPH_HEIGHT, GRAPH_STROKE,
-            UIColors.GRAPH_BACKGROUND.toColor(), UIColors.GRID.toColor(), trail
+    // Phase portrait, right of the graph
+    private static final int PHASE_X = GRAPH_X + GRAPH_WIDTH + 20;
+    private static final int PHASE_Y = GRAPH_Y;
+    private static final int PHASE_SIZE = 210;
+    private static final int PHASE_RESOLUTION = 256; // histogram cells per axis
+
+    // Timeline, overlaid along the bottom of the simulation box
+    private static final int TIMELINE_MARGIN = 60;
+    private static final int TIMELINE_HEIGHT = 20;
+    private final Timeline timeline = new Timeline(
+            CORNER_X + TIMELINE_MARGIN, CORNER_Y + SIM_HEIGHT - 2 * TIMELINE_HEIGHT, SIM_WIDTH - 2 * TIMELINE_MARGIN, TIMELINE_HEIGHT,
+            UIColors.TIMELINE_TRACK.toColor(), UIColors.TIMELINE_FILL.toColor(), time -> simulationLoop.seek(time)
     );
 
+    private Graph graph;
+    private PhasePortrait phasePortrait;
+
+    // Trail hover
+    private static final int HOVER_RADIUS = 8; // pixels
+    private final Tooltip tooltip = new Tooltip(UIColors.TOOLTIP.toColor(), Color.BLACK);
+    private boolean hovering = false;
+    private double hoverX, hoverY; // hovered trail point, sim coordinates
+    private String[] hoverLines;
+
     // Mouse & drag state
     private boolean mouseInSimBox = false;
     private boolean mousePressedInSimBox = false;
@@ -152,6 +209,8 @@ public final class PendulumPanel extends JPanel {
     public PendulumPanel() {
         setupCamera();
         setupPendulums();
+        setupTrail();
+        pendulumSetters = pendulumSetters(selectedPendulum);
 
         setupMouseHandling();
         setupButtons();
@@ -186,7 +245,6 @@ public final class PendulumPanel extends JPanel {
                 if (buttonSelected < pendulumSetters.size())
                     pendulumSetters.get(buttonSelected).accept(userValue);
                 textField.setBackground(Color.WHITE);
-                pendulum1.update(0);//chnage it only for a little bit
                 requestFocusInWindow();
             } catch (NumberFormatException ex) {
                 textField.setBackground(UIColors.ERROR.toColor());
@@ -248,28 +306,14 @@ public final class PendulumPanel extends JPanel {
         int topSectionSize = 60;
 
         Button stopBtn = createButton(topSectionSize, topSectionSize, 30, "Stop Siumulation", pausePath, UIColors.STOP_RED.toColor(), buttonType,() ->  {
-            isRunning = !isRunning;
-            Button b = buttons.get(0); 
-            b.setButtonColor(isRunning ? UIColors.STOP_RED.toColor() : UIColors.GO_GREEN.toColor());
-            b.setImg(isRunning ? pausePath: playPath);
+            simulationLoop.setRunning(!isRunning);
+            showRunning(!isRunning);
         });
         buttonSection.addElement(stopBtn);
 
         Button resetBtn = createButton(topSectionSize, topSectionSize,30, "Reset Simulation", resetPath ,UIColors.RESET.toColor(),  buttonType, () -> {
-            int lastBobX = 0, lastBobY = 0;
-            for (int i = 0; i < pendulums.size(); i++) {
-                Pendulum p = pendulums.get(i);
-                if (i > 0) {
-                    p.setPivotX(lastBobX);
-                    p.setPivotY(lastBobY);
-                }
-                p.reset();
-                
-                lastBobX = (int) p.getBobX();
-                lastBobY = (int) p.getBobY();
-            }
-            trail.clear();
-            time = 0; cameraDiffX = 0; cameraDiffY = 0;
+            simulationLoop.reset(); // trail clears on the new epoch
+            cameraDiffX = 0; cameraDiffY = 0;
             if (cameraFollow) follow();
         });
         buttonSection.addElement(resetBtn);
@@ -288,6 +332,15 @@ public final class PendulumPanel extends JPanel {
         Button arrowBtn = createButton(topSectionSize, topSectionSize,30, "Arrow", arrowPath, UIColors.ARROW_BUTTON.toColor(), buttonType, 
         () -> showArrow = !showArrow);
         buttonSection.addElement(arrowBtn);
+
+        Button warpBtn = createButton(topSectionSize, topSectionSize,30, warpText(), nextPath, UIColors.WARP.toColor(), buttonType, null);
+        warpBtn.setOnClick(() -> {
+            warpLevel = (warpLevel + 1) % WARP_LEVELS.length;
+            simulationLoop.setWarp(WARP_LEVELS[warpLevel]);
+            warpBtn.setText(warpText());
+            warpBtn.setButtonColor(warpLevel == 0 ? UIColors.WARP.toColor() : UIColors.WARP_ACTIVE.toColor());
+        });
+        buttonSection.addElement(warpBtn);
         
         
         //pendulum buttons
@@ -296,6 +349,8 @@ public final class PendulumPanel extends JPanel {
         Button prevBtn = createButton(pendelumSectionSize, pendelumSectionSize, 20, "Previous Pendulum", prevPath,UIColors.PENDULUM_BUTTON.toColor(), buttonType, 
                 () -> {if (selectedPendulum > 1) selectedPendulum--;
                     pendulumSetters = pendulumSetters(selectedPendulum);
+                    graph.setPendulum(selectedPendulum - 1);
+                    phasePortrait.setPendulum(selectedPendulum - 1);
                 });
 
         pendelumSection.addElement(prevBtn);
@@ -303,10 +358,24 @@ public final class PendulumPanel extends JPanel {
         Button nextBtn = createButton(pendelumSectionSize, pendelumSectionSize, 20, "Next Pendulum", nextPath, UIColors.PENDULUM_BUTTON.toColor(), buttonType, 
                 () ->  {if (selectedPendulum < pendulums.size()) selectedPendulum++;
                     pendulumSetters = pendulumSetters(selectedPendulum);
+                    graph.setPendulum(selectedPendulum - 1);
+                    phasePortrait.setPendulum(selectedPendulum - 1);
                 });
         pendelumSection.addElement(nextBtn);
     }
 
+    private void showRunning(boolean running) {
+        isRunning = running;
+        Button b = buttons.get(0);
+        b.setButtonColor(isRunning ? UIColors.STOP_RED.toColor() : UIColors.GO_GREEN.toColor());
+        b.setImg(isRunning ? pausePath: playPath);
+    }
+
+    private String warpText() {
+        double warp = WARP_LEVELS[warpLevel];
+        return "Warp: " + (warp == SimulationLoop.WARP_MAX ? "max" : String.format("%.0fx", warp));
+    }
+
     // private Button createButton(int x, int y, int w, int h, int fontSize, String text, Color color, int buttonType, Runnable action) {
     //     Button btn = new Button(x, y, w, h, text, color, buttonType, 3, fontSize);
     //     btn.setOnClick(action);
@@ -325,7 +394,7 @@ public final class PendulumPanel extends JPanel {
 
     private void setupTabButtons() {
         tabButtons.clear();
-        tabButtons.addAll(DataSet.createTabButtons(pendulum1.getPendulumData()));
+        tabButtons.addAll(DataSet.createTabButtons(pendulum1.getPendulumData(0)));
 
         for (int i = 0, changeableIndex = 0; i < tabButtons.size(); i++, changeableIndex++) {
             int elementIndex = 0;
@@ -405,42 +474,75 @@ public final class PendulumPanel extends JPanel {
     private List<Consumer<Double>> pendulumSetters(int pendulumObserved){
         Pendulum p = pendulums.get(pendulumObserved-1);
         List<Consumer<Double>> setterList = List.of(
-            p::setLength,
-            p::setMass,
-            p::setPivotX,
-            p::setPivotY,
-            p::setAngle,
-            p::setInitialAngle,
-            p::setAngularVelocity,
-            p::setInitialAngularVelocity
+            onSimulationThread(p::setLength),
+            onSimulationThread(p::setMass),
+            onSimulationThread(p::setPivotX),
+            onSimulationThread(p::setPivotY),
+            onSimulationThread(p::setAngle),
+            onSimulationThread(p::setInitialAngle),
+            onSimulationThread(p::setAngularVelocity),
+            onSimulationThread(p::setInitialAngularVelocity)
     );
         return setterList;
     }
 
+    // Pendulums are owned by the simulation thread, so edits are queued there
+    private Consumer<Double> onSimulationThread(Consumer<Double> setter) {
+        return value -> simulationLoop.submit(engine -> {
+            setter.accept(value);
+            engine.layout();
+        });
+    }
+
     
     // ----------------------------
     // Main loop
     // ----------------------------
     private void startMainLoop() {
-        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
-        executor.scheduleAtFixedRate(() -> SwingUtilities.invokeLater(() -> {
-            updateSimulation();
-            repaint();
-        }), 0, 16, TimeUnit.MILLISECONDS);
+        simulationLoop.start();
+        frameScheduler.start();
+    }
+
+    /** Stops both loops and releases the trail history files when the panel is disposed with its window. */
+    @Override
+    public void removeNotify() {
+        frameScheduler.stop();
+        simulationLoop.stop();
+        if (trailHistory != null) {
+            try {
+                trailHistory.close();
+            } catch (IOException e) {
+                System.out.println("Error closing trail history: " + e.getMessage());
+            }
+            trailHistory = null; // a frame already queued on the EDT must not write to it
+        }
+        super.removeNotify();
     }
     
-    private void updateSimulation() {
-        if (isRunning) {
-            for(Pendulum p: pendulums){
-                p.update(DELTA_TIME);
+    private void updateFrame() {
+        SampleQueue samples = simulationLoop.getSamples();
+        while (samples.poll(sampleRecord)) {
+            int epoch = (int) sampleRecord[SimulationLoop.SAMPLE_EPOCH];
+            double time = sampleRecord[SimulationLoop.SAMPLE_TIME];
+            if (epoch != trailEpoch) {
+                trail.clear();
+                channels.clear();
+                phaseHistogram.clear();
+                trailEpoch = epoch;
+                if (trailHistory != null) trailHistory.truncate(time); // a seek rewrites the future
             }
-            time += DELTA_TIME;
-
-            Pendulum p = pendulums.get(selectedPendulum-1);
-            trail.add(new TrailPoint(p.getBobX(),p.getBobY(), time)); // gets pendulum at the end of the list
-            if (trail.size() > TRAIL_LIMIT) trail.remove(0);
+            trail.add(sampleRecord);
+            if (trailHistory != null) trailHistory.add(time, sampleRecord, SimulationLoop.SAMPLE_BOBS);
+            channels.add(sampleRecord);
+            phaseHistogram.add(sampleRecord);
         }
 
+        SimulationSnapshot latest = simulationLoop.getSnapshot();
+        if (isRunning && !simulationLoop.isRunning()) showRunning(false); // the loop paused itself after a failure
+        if (latest.getEpoch() != trailEpoch) { trail.clear(); channels.clear(); phaseHistogram.clear(); trailEpoch = latest.getEpoch(); }
+        if (tracing) trailIndex.update(trail.getLevel(0));
+        timeline.setRange(simulationLoop.getEarliestSeekTime(), latest.getTime(), latest.getTime());
+
         if (cameraFollow) follow();
         else {
             simCameraX = cameraCenterX + cameraDiffX;
@@ -455,6 +557,7 @@ public final class PendulumPanel extends JPanel {
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         Graphics2D g2 = (Graphics2D) g;
+        snapshot = simulationLoop.getFrameState().interpolate(System.nanoTime());
         
         drawBackground(g2);
         drawVignette(g2);
@@ -466,6 +569,7 @@ public final class PendulumPanel extends JPanel {
         drawDataSet(g2);
         drawLabels(g2);
         drawGraph(g2, graph);
+        phasePortrait.draw(g2);
         
         drawPopUps(g2);
 
@@ -481,7 +585,9 @@ public final class PendulumPanel extends JPanel {
         // Draw FPS text
         g.setColor(Color.WHITE);
         g.setFont(UI_FONT);
-        g.drawString("FPS: " + currentFps, 10, 20);
+        String warp = warpLevel == 0 ? "" : "   (" + warpText() + ")";
+        g.drawString("FPS: " + currentFps + "   Sim speed: " + String.format("%.1fx", simulationLoop.getRealTimeFactor()) + warp
+                + String.format("   EDT lag: %.1f ms   Dropped frames: %d", frameScheduler.getAverageLagNanos() / 1e6, frameScheduler.getDroppedFrames()), 10, 20);
     }
 
     private void drawSections(Graphics2D g2) {
@@ -513,63 +619,46 @@ public final class PendulumPanel extends JPanel {
         
         if (tracing) drawTrail(g2);
         if (showArrow) drawArrow(g2);
-        int LastBobX;
-        int LastBobY;
-
-        // Draw pendulum lines and bobs, updated to handle multiple pendulums without overlapping
-        for(int i = 0; i < pendulums.size(); i++){
-            if(i == 0){
-                pendulums.get(i).drawLine(g2, simCameraX, simCameraY, zoom);
-            } else {
-                Pendulum previouusPendulum = pendulums.get(i-1);
-                LastBobX = (int)(previouusPendulum.getBobX());
-                LastBobY = (int)(previouusPendulum.getBobY());
-                pendulums.get(i).setPivotX(LastBobX);
-                pendulums.get(i).setPivotY(LastBobY);
-                pendulums.get(i).drawLine(g2, simCameraX, simCameraY, zoom);
-            }
+        // Pivots are kept pinned to the previous bob by the chain solver, so just draw
+        SimulationSnapshot s = snapshot;
+        for (int i = 0; i < s.getPendulumCount(); i++) {
+            Pendulum.drawLine(g2, s.getPivotX(i), s.getPivotY(i), s.getBobX(i), s.getBobY(i), simCameraX, simCameraY, zoom);
         }
-        for(int i = 0; i < pendulums.size(); i++){
-
+        for(int i = 0; i < s.getPendulumCount(); i++){
             Color color = (i == selectedPendulum-1) ? UIColors.BOB_GREEN_COLOR.toColor() : UIColors.BOB_COLOR.toColor();
-            pendulums.get(i).setBobColor(color);
-
-
-            if(i == 0){
-                pendulums.get(i).drawBob(g2, simCameraX, simCameraY, zoom);
-            } else {
-                Pendulum previouusPendulum = pendulums.get(i-1);
-                LastBobX = (int)(previouusPendulum.getBobX());
-                LastBobY = (int)(previouusPendulum.getBobY());
-                pendulums.get(i).setPivotX(LastBobX);
-                pendulums.get(i).setPivotY(LastBobY);
-                pendulums.get(i).drawBob(g2, simCameraX, simCameraY, zoom);
-            }
+            Pendulum.drawBob(g2, s.getBobX(i), s.getBobY(i), color, simCameraX, simCameraY, zoom);
         }
         
 
+        timeline.draw(g2);
+        drawHover(g2);
+
         g2.setClip(oldClip);
     }
     
     private void drawTrail(Graphics2D g2) {
-        if (trail.size() < 2) return;
-        for (int i = 0; i < trail.size() - 1; i++) {
-            TrailPoint p1 = trail.get(i);
-            TrailPoint p2 = trail.get(i + 1);
-            double avgTime = (p1.getTime() + p2.getTime()) / 2.0;
-            g2.setColor(Color.getHSBColor((float)((avgTime % 10) / 10.0), 1.0f, 1.0f));
-            g2.setStroke(new BasicStroke((float)(2 * zoom)));
-            int x1 = (int)(p1.getX() * zoom) + simCameraX;
-            int y1 = (int)(p1.getY() * zoom) + simCameraY;
-            int x2 = (int)(p2.getX() * zoom) + simCameraX;
-            int y2 = (int)(p2.getY() * zoom) + simCameraY;
-            g2.drawLine(x1, y1, x2, y2);
+        TrailBuffer recent = trail.getLevel(0);
+        if (recent.size() < 2) return;
+        trailLayer.draw(g2, trail, zoom, simCameraX, simCameraY);
+        // Join the last sample to the interpolated bobs so the heads move smoothly between samples
+        int last = recent.size() - 1;
+        if (snapshot.getEpoch() != trailEpoch || snapshot.getTime() <= recent.getTime(last)) return;
+        int tracks = Math.min(recent.getTrackCount(), snapshot.getPendulumCount());
+        trailHeadStroke = TrailRenderer.strokeFor(zoom, trailHeadStroke);
+        Stroke oldStroke = g2.getStroke();
+        g2.setStroke(trailHeadStroke);
+        for (int i = 0; i < tracks; i++) {
+            g2.setColor(TrailPalette.colorAt((recent.getTime(i, last) + snapshot.getTime()) / 2.0));
+            g2.drawLine((int)(recent.getX(i, last) * zoom) + simCameraX, (int)(recent.getY(i, last) * zoom) + simCameraY,
+                    (int)(snapshot.getBobX(i) * zoom) + simCameraX, (int)(snapshot.getBobY(i) * zoom) + simCameraY);
         }
+        g2.setStroke(oldStroke);
     }
 
     private void drawArrow(Graphics2D g2) {
-        Pendulum p = pendulums.get(selectedPendulum-1);
-        Utils.drawArrow(g2, (int)(p.getBobX()*zoom)+simCameraX, (int)(p.getBobY()*zoom)+simCameraY, (int)(p.getVelocityX()*zoom*2), -(int)(p.getVelocityY()*zoom*2), 3, UIColors.ARROW.toColor());//multiply by 2 to make it more visible
+        int i = selectedPendulum-1;
+        SimulationSnapshot s = snapshot;
+        Utils.drawArrow(g2, (int)(s.getBobX(i)*zoom)+simCameraX, (int)(s.getBobY(i)*zoom)+simCameraY, (int)(s.getVelocityX(i)*zoom*2), -(int)(s.getVelocityY(i)*zoom*2), 3, UIColors.ARROW.toColor());//multiply by 2 to make it more visible
     }
 
     private void drawButtons(Graphics2D g2) { for(Button b: buttons) b.draw(g2); for(Button b : tabButtons) b.draw(g2); }
@@ -584,7 +673,7 @@ public final class PendulumPanel extends JPanel {
 
     private void drawGraph(Graphics2D g2, Graph graph) { graph.draw(g2); }
     
-    private void drawDataSet(Graphics2D g2) { DataSet.drawDataSet(g2, pendulums.get(selectedPendulum-1).getPendulumData()); }
+    private void drawDataSet(Graphics2D g2) { DataSet.drawDataSet(g2, snapshot.getPendulumData(selectedPendulum-1)); }
 
     private void drawPopUps(Graphics2D g2) {
         for (Button b : buttons) {
@@ -602,6 +691,8 @@ public final class PendulumPanel extends JPanel {
     private void handleMousePress(MouseEvent e) {
         for (Button b : buttons) b.handleMouse(e);
         for (Button b : tabButtons) b.handleMouse(e);
+        if (timeline.handleMouse(e)) return;
+        if (graph.handleMouse(e)) return;
 
         if (isMouseInSimBox(e.getX(), e.getY())) {
             mousePressedInSimBox = true;
@@ -618,13 +709,51 @@ public final class PendulumPanel extends JPanel {
         setCursor(Cursor.getDefaultCursor());
         for (Button b : buttons) b.handleMouse(e);
         for (Button b : tabButtons) b.handleMouse(e);
+        timeline.handleMouse(e);
+        graph.handleMouse(e);
     }
 
     private void handleMouseDrag(MouseEvent e) {
         updateMousePosition(e);
+        hovering = false;
+        if (timeline.handleMouse(e)) return;
+        if (graph.handleMouse(e)) return;
         if (mousePressedInSimBox && mouseInSimBox) calculateCameraDiff();
     }
 
+    // ----------------------------
+    // Trail hover
+    // ----------------------------
+    private void updateHover(int mouseX, int mouseY) {
+        hovering = false;
+        if (!tracing || !mouseInSimBox || timeline.contains(mouseX, mouseY)) return;
+        TrailBuffer recent = trail.getLevel(0);
+        double simX = (mouseX - simCameraX) / zoom;
+        double simY = (mouseY - simCameraY) / zoom;
+        int index = trailIndex.nearest(recent, simX, simY, HOVER_RADIUS / zoom);
+        if (index < 0) return;
+        int track = trailIndex.getHitTrack();
+
+        hovering = true;
+        hoverX = recent.getX(track, index);
+        hoverY = recent.getY(track, index);
+        hoverLines = new String[] {
+                "Pendulum " + (track + 1),
+                String.format("Time: %.2f s", recent.getTime(index)),
+                String.format("Angle: %.2f rad", recent.getAngle(track, index)),
+                String.format("Angular Velocity: %.2f rad/s", recent.getAngularVelocity(track, index))
+        };
+    }
+
+    private void drawHover(Graphics2D g2) {
+        if (!hovering || !tracing) { tooltip.hide(); return; }
+        int x = (int) (hoverX * zoom) + simCameraX;
+        int y = (int) (hoverY * zoom) + simCameraY;
+        Utils.drawCircle(g2, x - 5, y - 5, 10, 10, Color.WHITE, Color.BLACK, 2);
+        tooltip.show(x, y, hoverLines);
+        tooltip.draw(g2);
+    }
+
     private boolean isMouseInSimBox(int x, int y) {
         return x >= CORNER_X && x <= CORNER_X + SIM_WIDTH && y >= CORNER_Y && y <= CORNER_Y + SIM_HEIGHT;
     }
@@ -641,9 +770,9 @@ public final class PendulumPanel extends JPanel {
     }
 
     private void follow() {
-        Pendulum p = pendulums.get(selectedPendulum-1);
-        simCameraX = -p.getBobX() + SIM_WIDTH / 2 + CORNER_X;
-        simCameraY = -p.getBobY() + SIM_HEIGHT / 2 + CORNER_Y;
+        SimulationSnapshot s = simulationLoop.getSnapshot();
+        simCameraX = -(int) s.getBobX(selectedPendulum-1) + SIM_WIDTH / 2 + CORNER_X;
+        simCameraY = -(int) s.getBobY(selectedPendulum-1) + SIM_HEIGHT / 2 + CORNER_Y;
     }
 
 
@@ -668,12 +797,15 @@ public final class PendulumPanel extends JPanel {
             @Override
             public void mouseMoved(MouseEvent e) {
                 mouseInSimBox = isMouseInSimBox(e.getX(), e.getY());
+                updateHover(e.getX(), e.getY());
                 for (Button b : buttons) b.handleMouse(e);
                 for (Button b : tabButtons) b.handleMouse(e);
+                timeline.handleMouse(e);
             }
     
             @Override
             public void mouseWheelMoved(MouseWheelEvent e) {
+                if (graph.handleWheel(e)) return;
                 if (!isMouseInSimBox(e.getX(), e.getY())) return;
     
                 double scroll = e.getPreciseWheelRotation();
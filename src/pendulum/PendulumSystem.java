@@ -0,0 +1,77 @@
+package pendulum;
+
+import java.util.List;
+
+/**
+ * Bridges a list of {@link Pendulum} objects and the array-based {@link MechanicalSystem} view
+ * that integrators work on. {@link #gather()} copies angles, velocities, lengths and masses into
+ * primitive columns; {@link #scatter(double)} writes the integrated state back to the pendulums.
+ * Lengths and masses are treated as constant between the two calls.
+ */
+public abstract class PendulumSystem implements MechanicalSystem {
+
+    protected final List<Pendulum> links;
+
+    protected int size = 0;
+    protected double[] angle = new double[0];
+    protected double[] angularVelocity = new double[0];
+    protected double[] angularAcceleration = new double[0];
+    protected double[] length = new double[0];
+    protected double[] mass = new double[0];
+
+    protected PendulumSystem(List<Pendulum> links) {
+        this.links = links;
+    }
+
+    @Override
+    public int getDimension() { return size; }
+
+    /** Loads the current pendulum state into the primitive columns. */
+    public void gather() {
+        size = links.size();
+        if (angle.length < size) allocate(size);
+        for (int i = 0; i < size; i++) {
+            Pendulum p = links.get(i);
+            angle[i] = p.getAngle();
+            angularVelocity[i] = p.getAngularVelocity();
+            length[i] = p.getLength();
+            mass[i] = p.getMass();
+        }
+    }
+
+    /** Writes the columns back to the pendulums, with accelerations evaluated at time {@code t}. */
+    public void scatter(double t) {
+        computeAccelerations(t, angle, angularVelocity, angularAcceleration);
+        for (int i = 0; i < size; i++) {
+            links.get(i).setState(angle[i], angularVelocity[i], angularAcceleration[i]);
+        }
+        layout();
+    }
+
+    /** Refreshes bob positions after the pendulums were edited. */
+    public abstract void layout();
+
+    /**
+     * Total mechanical energy (kinetic plus gravitational potential) of the gathered state.
+     * Potential is measured from each fixed pivot, with y pointing down as on screen.
+     */
+    public abstract double computeEnergy();
+
+    /** Puts every pendulum back to its initial state. */
+    public void reset() {
+        for (Pendulum p : links) p.reset();
+        gather();
+        scatter(0);
+    }
+
+    public double[] getAngles() { return angle; }
+    public double[] getAngularVelocities() { return angularVelocity; }
+
+    protected void allocate(int capacity) {
+        angle = new double[capacity];
+        angularVelocity = new double[capacity];
+        angularAcceleration = new double[capacity];
+        length = new double[capacity];
+        mass = new double[capacity];
+    }
+}
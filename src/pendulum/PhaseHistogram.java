@@ -0,0 +1,109 @@
+package pendulum;
+
+import java.util.Arrays;
+
+/**
+ * Sample counts over the angle / angular velocity plane, one fixed grid per pendulum.
+ *
+ * <p>Angles are wrapped to {@code [-pi, pi)} across the grid's width; angular velocities run from
+ * {@code -range} at the bottom row to {@code +range} at the top. A sample beyond the current
+ * range doubles it and folds the grid onto its middle half, so every sample ever added stays
+ * counted and memory never grows. Adding is O(1) per pendulum; the grid size alone decides what
+ * reading it costs, however many samples it holds.
+ */
+public class PhaseHistogram {
+
+    public static final double INITIAL_VELOCITY_RANGE = 0.5; // rad/s either side of zero
+    private static final double TWO_PI = 2 * Math.PI;
+
+    private final int pendulums;
+    private final int resolution;
+    private final int[][] counts;  // [pendulum][row * resolution + column], row 0 at the top
+    private final double[] range;  // per pendulum, angular velocity at the top edge
+    private final int[] maxCount;
+    private final long[] total;
+    private final int[] scratch;   // one grid, for widening
+    private int version = 0;       // bumped whenever any count changes
+
+    public PhaseHistogram(int pendulums, int resolution) {
+        if (pendulums < 1) throw new IllegalArgumentException("pendulums must be at least 1: " + pendulums);
+        if (resolution < 4 || resolution % 4 != 0) {
+            throw new IllegalArgumentException("resolution must be a positive multiple of 4: " + resolution);
+        }
+        this.pendulums = pendulums;
+        this.resolution = resolution;
+        this.counts = new int[pendulums][resolution * resolution];
+        this.range = new double[pendulums];
+        this.maxCount = new int[pendulums];
+        this.total = new long[pendulums];
+        this.scratch = new int[resolution * resolution];
+        Arrays.fill(range, INITIAL_VELOCITY_RANGE);
+    }
+
+    // ----------------------------
+    // Updating
+    // ----------------------------
+    /** Counts every pendulum's state from a {@link SimulationLoop} sample record. */
+    public void add(double[] record) {
+        for (int p = 0; p < pendulums; p++) {
+            add(p, Channel.ANGLE.read(record, p, pendulums), Channel.ANGULAR_VELOCITY.read(record, p, pendulums));
+        }
+    }
+
+    public void add(int pendulum, double angle, double angularVelocity) {
+        if (!Double.isFinite(angle) || !Double.isFinite(angularVelocity)) return;
+        while (Math.abs(angularVelocity) >= range[pendulum]) widen(pendulum);
+
+        double wrapped = angle - TWO_PI * Math.floor((angle + Math.PI) / TWO_PI);
+        int column = Math.min(resolution - 1, (int) ((wrapped + Math.PI) / TWO_PI * resolution));
+        int row = Math.min(resolution - 1, (int) ((range[pendulum] - angularVelocity) / (2 * range[pendulum]) * resolution));
+        int count = ++counts[pendulum][row * resolution + column];
+        if (count > maxCount[pendulum]) maxCount[pendulum] = count;
+        total[pendulum]++;
+        version++;
+    }
+
+    /** Doubles the velocity range of {@code pendulum}, merging row pairs into the middle half. */
+    private void widen(int pendulum) {
+        int[] grid = counts[pendulum];
+        int quarter = resolution / 4;
+        Arrays.fill(scratch, 0);
+        int max = 0;
+        for (int row = 0; row < resolution; row++) {
+            int target = (quarter + row / 2) * resolution;
+            for (int column = 0; column < resolution; column++) {
+                int count = scratch[target + column] += grid[row * resolution + column];
+                if (count > max) max = count;
+            }
+        }
+        System.arraycopy(scratch, 0, grid, 0, grid.length);
+        maxCount[pendulum] = max;
+        range[pendulum] *= 2;
+        version++;
+    }
+
+    public void clear() {
+        for (int p = 0; p < pendulums; p++) {
+            Arrays.fill(counts[p], 0);
+            range[p] = INITIAL_VELOCITY_RANGE;
+            maxCount[p] = 0;
+            total[p] = 0;
+        }
+        version++;
+    }
+
+    // ----------------------------
+    // Getters
+    // ----------------------------
+    public int getPendulumCount() { return pendulums; }
+    public int getResolution() { return resolution; }
+    public int getVersion() { return version; }
+
+    /** Counts of {@code pendulum}, row-major with the highest angular velocity in row {@code 0}. Do not modify. */
+    public int[] getCounts(int pendulum) { return counts[pendulum]; }
+    public int getMaxCount(int pendulum) { return maxCount[pendulum]; }
+    public long getTotal(int pendulum) { return total[pendulum]; }
+
+    /** Angular velocity at the top edge of {@code pendulum}'s grid; the bottom edge is its negative. */
+    public double getVelocityRange(int pendulum) { return range[pendulum]; }
+}
@@ -0,0 +1,61 @@
+package pendulum;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded single-producer / single-consumer queue of fixed-width {@code double} records,
+ * used to hand per-step samples from the simulation thread to the UI without locks or
+ * per-sample allocation. When the consumer falls behind, new records are dropped and counted
+ * rather than blocking the producer.
+ */
+public final class SampleQueue {
+
+    private final double[] buffer;
+    private final int recordSize;
+    private final int capacity;
+
+    private final AtomicLong head = new AtomicLong(); // next record to read, written by the consumer
+    private final AtomicLong tail = new AtomicLong(); // next record to write, written by the producer
+    private volatile long dropped = 0;
+
+    public SampleQueue(int capacity, int recordSize) {
+        this.capacity = capacity;
+        this.recordSize = recordSize;
+        this.buffer = new double[capacity * recordSize];
+    }
+
+    // ----------------------------
+    // Producer side
+    // ----------------------------
+    /** Copies {@code record} into the queue. Returns false, and counts a drop, if the queue is full. */
+    public boolean offer(double[] record) {
+        long t = tail.get();
+        if (t - head.get() >= capacity) {
+            dropped++; // only the producer writes this
+            return false;
+        }
+        System.arraycopy(record, 0, buffer, (int) (t % capacity) * recordSize, recordSize);
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    // ----------------------------
+    // Consumer side
+    // ----------------------------
+    /** Copies the oldest record into {@code out}. Returns false if the queue is empty. */
+    public boolean poll(double[] out) {
+        long h = head.get();
+        if (h >= tail.get()) return false;
+        System.arraycopy(buffer, (int) (h % capacity) * recordSize, out, 0, recordSize);
+        head.lazySet(h + 1);
+        return true;
+    }
+
+    // ----------------------------
+    // Getters
+    // ----------------------------
+    public int getRecordSize() { return recordSize; }
+    public int getCapacity() { return capacity; }
+    public int size() { return (int) (tail.get() - head.get()); }
+    public long getDropped() { return dropped; }
+}
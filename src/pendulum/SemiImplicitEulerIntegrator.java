@@ -0,0 +1,36 @@
+package pendulum;
+
+/**
+ * First-order semi-implicit (symplectic) Euler: velocity first, then position with the new
+ * velocity. This is the scheme {@link Pendulum#update(double)} has always used.
+ */
+public class SemiImplicitEulerIntegrator implements Integrator {
+
+    private double[] a = new double[0];
+    private long stepsTaken = 0;
+
+    @Override
+    public void advance(MechanicalSystem system, double t, double[] q, double[] v, double dt) {
+        int n = system.getDimension();
+        if (a.length < n) a = new double[n];
+        system.computeAccelerations(t, q, v, a);
+        for (int i = 0; i < n; i++) {
+            v[i] += a[i] * dt;
+            q[i] += v[i] * dt;
+        }
+        stepsTaken++;
+    }
+
+    /** Half the step at which the four-link chain starts to diverge. */
+    @Override
+    public double getMaxChainStep() { return 0.16; }
+
+    @Override
+    public String getName() { return "Semi-implicit Euler"; }
+
+    @Override
+    public long getStepsTaken() { return stepsTaken; }
+
+    @Override
+    public void resetCounters() { stepsTaken = 0; }
+}
@@ -0,0 +1,238 @@
+package pendulum;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Headless owner of the pendulums and the simulation clock.
+ * Nothing in here touches Swing, so the engine can be stepped from batch jobs
+ * and tests as easily as from {@link PendulumPanel}.
+ */
+public class SimulationEngine {
+
+    public static final double DEFAULT_DELTA_TIME = 0.16;
+
+    // ----------------------------
+    // Fields
+    // ----------------------------
+    private final List<Pendulum> pendulums = new ArrayList<>();
+    private final List<Pendulum> pendulumsView = Collections.unmodifiableList(pendulums);
+    private final PendulumChain chain = new PendulumChain(pendulums);
+    private final IndependentPendulums independent = new IndependentPendulums(pendulums);
+    private boolean chained = false;
+    private Integrator integrator = new SemiImplicitEulerIntegrator();
+    private boolean analytic = false;
+    private final List<AnalyticPendulum> solutions = new ArrayList<>(); // cached per pendulum
+    private final double deltaTime;
+    private double time = 0;
+    private long stepCount = 0;
+
+    // ----------------------------
+    // Constructors
+    // ----------------------------
+    public SimulationEngine() {
+        this(DEFAULT_DELTA_TIME);
+    }
+
+    public SimulationEngine(double deltaTime) {
+        if (!(deltaTime > 0)) throw new IllegalArgumentException("deltaTime must be positive: " + deltaTime);
+        this.deltaTime = deltaTime;
+    }
+
+    // ----------------------------
+    // Pendulums
+    // ----------------------------
+    public void addPendulum(Pendulum pendulum) {
+        pendulums.add(pendulum);
+    }
+
+    /** Live, read-only view of the pendulums in insertion order. */
+    public List<Pendulum> getPendulums() { return pendulumsView; }
+    public Pendulum getPendulum(int index) { return pendulums.get(index); }
+    public int getPendulumCount() { return pendulums.size(); }
+
+    /**
+     * When chained, each pendulum hangs from the previous one's bob and the whole chain is
+     * integrated as one coupled system by {@link PendulumChain}; otherwise every pendulum
+     * swings independently.
+     */
+    public void setChained(boolean chained) {
+        this.chained = chained;
+        layout();
+    }
+
+    public boolean isChained() { return chained; }
+
+    private PendulumSystem system() { return chained ? chain : independent; }
+
+    /**
+     * Selects the integrator used from the next step on. Defaults to semi-implicit Euler. While
+     * chained, steps longer than {@link Integrator#getMaxChainStep()} are split into substeps.
+     */
+    public void setIntegrator(Integrator integrator) {
+        if (integrator == null) throw new IllegalArgumentException("integrator must not be null");
+        this.integrator = integrator;
+    }
+
+    public Integrator getIntegrator() { return integrator; }
+
+    /**
+     * When set, unchained pendulums are not integrated: each step evaluates the exact solution
+     * from their initial conditions (see {@link AnalyticPendulum}). Edits to the current angle or
+     * velocity are therefore overridden; edit the initial values instead. Chains always integrate.
+     */
+    public void setAnalytic(boolean analytic) {
+        this.analytic = analytic;
+    }
+
+    public boolean isAnalytic() { return analytic; }
+
+    // ----------------------------
+    // Stepping
+    // ----------------------------
+    /** Advances every pendulum and the clock by one {@code deltaTime}. */
+    public void step() {
+        advance(deltaTime);
+        time += deltaTime;
+        stepCount++;
+    }
+
+    private void advance(double span) {
+        if (analytic && !chained) {
+            evaluateAnalytic(time + span);
+            return;
+        }
+        PendulumSystem system = system();
+        system.gather();
+        double maxStep = chained ? integrator.getMaxChainStep() : Double.POSITIVE_INFINITY;
+        int substeps = span > maxStep ? (int) Math.ceil(span / maxStep) : 1;
+        double substep = span / substeps;
+        for (int i = 0; i < substeps; i++) {
+            integrator.advance(system, time + i * substep, system.getAngles(), system.getAngularVelocities(), substep);
+        }
+        system.scatter(time + span);
+    }
+
+    public void stepN(int steps) {
+        for (int i = 0; i < steps; i++) step();
+    }
+
+    /**
+     * Steps until the clock reaches {@code targetTime} (rounded up to a whole step).
+     * An adaptive integrator is instead handed the whole span in one engine step and lands
+     * exactly on {@code targetTime}, choosing its own internal steps.
+     *
+     * @return number of engine steps taken
+     */
+    public long runUntil(double targetTime) {
+        if (integrator.isAdaptive()) {
+            if (targetTime <= time) return 0;
+            advance(targetTime - time);
+            time = targetTime;
+            stepCount++;
+            return 1;
+        }
+        long steps = (long) Math.ceil((targetTime - time) / deltaTime - 1e-9);
+        for (long i = 0; i < steps; i++) step();
+        return Math.max(steps, 0);
+    }
+
+    /**
+     * Jumps straight to {@code targetTime}, forwards or backwards, using the closed-form solution
+     * from the initial conditions, at the same cost for any distance.
+     *
+     * @throws IllegalStateException when chained, as the coupled chain has no closed form
+     */
+    public void seek(double targetTime) {
+        if (chained) throw new IllegalStateException("Closed-form seek needs independent pendulums");
+        evaluateAnalytic(targetTime);
+        time = targetTime;
+        stepCount = (long) Math.floor(targetTime / deltaTime + 1e-9);
+    }
+
+    private void evaluateAnalytic(double t) {
+        for (int i = 0; i < pendulums.size(); i++) {
+            Pendulum p = pendulums.get(i);
+            if (i == solutions.size()) solutions.add(AnalyticPendulum.of(p));
+            else if (!solutions.get(i).matches(p)) solutions.set(i, AnalyticPendulum.of(p));
+            solutions.get(i).applyTo(p, t);
+        }
+    }
+
+    /** Copies the current state into an immutable {@link SimulationSnapshot}. */
+    public SimulationSnapshot snapshot() {
+        return snapshot(0);
+    }
+
+    /** As {@link #snapshot()}, tagging the copy with the caller's discontinuity counter. */
+    public SimulationSnapshot snapshot(int epoch) {
+        int n = pendulums.size();
+        double[] angles = new double[n];
+        double[] angularVelocities = new double[n];
+        double[] angularAccelerations = new double[n];
+        double[] pivotX = new double[n];
+        double[] pivotY = new double[n];
+        double[] bobX = new double[n];
+        double[] bobY = new double[n];
+        double[] lengths = new double[n];
+        double[] masses = new double[n];
+        double[] initialAngles = new double[n];
+        double[] initialAngularVelocities = new double[n];
+        for (int i = 0; i < n; i++) {
+            Pendulum p = pendulums.get(i);
+            angles[i] = p.getAngle();
+            angularVelocities[i] = p.getAngularVelocity();
+            angularAccelerations[i] = p.getAngularAcceleration();
+            pivotX[i] = p.getPivotX();
+            pivotY[i] = p.getPivotY();
+            bobX[i] = p.getPivotX() + p.getLength() * FastTrig.sin(p.getAngle());
+            bobY[i] = p.getPivotY() + p.getLength() * FastTrig.cos(p.getAngle());
+            lengths[i] = p.getLength();
+            masses[i] = p.getMass();
+            initialAngles[i] = p.getInitialAngle();
+            initialAngularVelocities[i] = p.getInitialAngularVelocity();
+        }
+        return new SimulationSnapshot(time, stepCount, epoch, angles, angularVelocities, angularAccelerations,
+                pivotX, pivotY, bobX, bobY, lengths, masses, initialAngles, initialAngularVelocities);
+    }
+
+    /** Total mechanical energy of the current state, see {@link PendulumSystem#computeEnergy()}. */
+    public double getTotalEnergy() {
+        PendulumSystem system = system();
+        system.gather();
+        return system.computeEnergy();
+    }
+
+    // ----------------------------
+    // Reset
+    // ----------------------------
+    /** Puts every pendulum back to its initial state and rewinds the clock. */
+    public void reset() {
+        system().reset();
+        resetClock();
+    }
+
+    /** Refreshes bob positions (and chain pivots) after pendulum properties were edited. */
+    public void layout() {
+        system().layout();
+    }
+
+    public void resetClock() {
+        time = 0;
+        stepCount = 0;
+    }
+
+    /** Puts the clock back to a recorded instant, see {@link CheckpointBuffer}. */
+    void setClock(double time, long stepCount) {
+        this.time = time;
+        this.stepCount = stepCount;
+    }
+
+    // ----------------------------
+    // Getters
+    // ----------------------------
+    public double getTime() { return time; }
+    public double getDeltaTime() { return deltaTime; }
+    public long getStepCount() { return stepCount; }
+}
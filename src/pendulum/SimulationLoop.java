@@ -0,0 +1,320 @@
+package pendulum;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs a {@link SimulationEngine} on its own thread so physics never competes with painting
+ * and input on the Event Dispatch Thread.
+ *
+ * <p>The thread wakes every {@code tickNanos} and asks a {@link FixedTimestepClock} how many
+ * engine steps the elapsed wall time is worth, so simulated speed follows the time scale rather
+ * than machine load, and a small engine step simply means more substeps per wake.
+ *
+ * <p>The engine is confined to the simulation thread. Other threads talk to it in three ways:
+ * <ul>
+ *   <li>{@link #submit} queues a command that runs on the simulation thread before the next step;</li>
+ *   <li>{@link #getSnapshot()} returns the latest immutable {@link SimulationSnapshot}, published
+ *       through a volatile field so readers never lock, and {@link #getFrameState()} the last two
+ *       states for interpolated rendering;</li>
+ *   <li>{@link #getSamples()} delivers one record per sample interval for trails and graphs, laid
+ *       out as {@code [epoch, time, bobX0, bobY0, bobX1, bobY1, ...]}.</li>
+ * </ul>
+ *
+ * <p>A {@link CheckpointBuffer} records the state every {@link #CHECKPOINT_INTERVAL} simulated
+ * seconds within a memory budget, so {@link #seek} can jump back anywhere in the retained window.
+ *
+ * <p>{@link #setWarp} fast-forwards by a multiplier, or with {@link #WARP_MAX} steps for most of
+ * each tick regardless of wall time. Samples are decimated by the same factor so a warped run
+ * delivers records at the normal wall-clock rate.
+ */
+public class SimulationLoop {
+
+    // Sample record: epoch, time, bob x and y of every pendulum, then one block per quantity
+    // below holding that quantity for every pendulum, see sampleBlock
+    public static final int SAMPLE_EPOCH = 0;
+    public static final int SAMPLE_TIME = 1;
+    public static final int SAMPLE_BOBS = 2;
+    public static final int SAMPLE_ANGLES = 0;
+    public static final int SAMPLE_ANGULAR_VELOCITIES = 1;
+    public static final int SAMPLE_ANGULAR_ACCELERATIONS = 2;
+    public static final int SAMPLE_ENERGIES = 3;
+    private static final int SAMPLE_BLOCKS = 4;
+
+    /** Simulated seconds per wall second; 10 matches the original 0.16 s every 16 ms. */
+    public static final double DEFAULT_TIME_SCALE = 10;
+    public static final long DEFAULT_TICK_NANOS = 16_000_000L;
+    private static final int MAX_STEPS_PER_TICK = 512;
+    private static final int SAMPLE_CAPACITY = 8192;
+
+    /** Simulated seconds between checkpoints, bounding how much a seek re-simulates. */
+    public static final double CHECKPOINT_INTERVAL = 1.0;
+    public static final long DEFAULT_CHECKPOINT_BUDGET = 16L << 20;
+
+    /** Warp multiplier meaning "as fast as the CPU allows". */
+    public static final double WARP_MAX = Double.POSITIVE_INFINITY;
+    /** Share of each tick spent stepping at {@link #WARP_MAX}, leaving the rest for snapshots and commands. */
+    private static final double WARP_MAX_BUSY = 0.75;
+    private static final int WARP_MAX_BATCH = 16; // steps between clock reads
+
+    private final SimulationEngine engine;
+    private final ConcurrentLinkedQueue<Consumer<SimulationEngine>> commands = new ConcurrentLinkedQueue<>();
+    private final SampleQueue samples;
+    private final double[] record;
+    private final double[] sampleAngles, sampleSin, sampleCos; // scratch for recordSample
+    private final FixedTimestepClock clock; // simulation thread only
+    private final CheckpointBuffer checkpoints; // simulation thread only
+    private volatile double earliestSeekTime = 0;
+    private final long tickNanos;
+    private double timeScale; // simulation thread only
+    private volatile double warp = 1; // written on the simulation thread only
+    private double sampleInterval = SimulationEngine.DEFAULT_DELTA_TIME;
+    private double lastSampleTime = Double.NEGATIVE_INFINITY;
+    private volatile double realTimeFactor = 0;
+
+    private volatile SimulationSnapshot snapshot;
+    private volatile FrameState frameState;
+    private volatile boolean running = true;
+    private int epoch = 0; // simulation thread only
+    private boolean failed = false; // simulation thread only; a step has thrown before
+
+    private ScheduledExecutorService executor;
+
+    public SimulationLoop(SimulationEngine engine) {
+        this(engine, DEFAULT_TIME_SCALE, DEFAULT_TICK_NANOS);
+    }
+
+    public SimulationLoop(SimulationEngine engine, double timeScale, long tickNanos) {
+        this(engine, timeScale, tickNanos, DEFAULT_CHECKPOINT_BUDGET);
+    }
+
+    public SimulationLoop(SimulationEngine engine, double timeScale, long tickNanos, long checkpointBudgetBytes) {
+        this.engine = engine;
+        this.tickNanos = tickNanos;
+        this.timeScale = timeScale;
+        this.clock = new FixedTimestepClock(engine.getDeltaTime(), timeScale, MAX_STEPS_PER_TICK);
+        int n = engine.getPendulumCount();
+        this.record = new double[sampleBlock(SAMPLE_BLOCKS, n)];
+        this.sampleAngles = new double[n];
+        this.sampleSin = new double[n];
+        this.sampleCos = new double[n];
+        this.samples = new SampleQueue(SAMPLE_CAPACITY, record.length);
+        this.checkpoints = new CheckpointBuffer(n, CHECKPOINT_INTERVAL, checkpointBudgetBytes);
+        checkpoints.capture(engine);
+        this.earliestSeekTime = engine.getTime();
+        this.snapshot = engine.snapshot(epoch);
+        this.frameState = new FrameState(snapshot, snapshot, System.nanoTime(), 1, 0);
+    }
+
+    // ----------------------------
+    // Lifecycle
+    // ----------------------------
+    public void start() {
+        if (executor != null) return;
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "simulation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::tick, 0, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void stop() {
+        if (executor == null) return;
+        executor.shutdownNow();
+        executor = null;
+    }
+
+    // ----------------------------
+    // Commands
+    // ----------------------------
+    /** Runs {@code command} on the simulation thread before the next step. */
+    public void submit(Consumer<SimulationEngine> command) {
+        commands.add(command);
+    }
+
+    /**
+     * Like {@link #submit}, for commands that break continuity (reset, seek): samples recorded
+     * afterwards carry a new epoch so consumers can drop what they collected before.
+     */
+    public void submitDiscontinuity(Consumer<SimulationEngine> command) {
+        commands.add(engine -> {
+            command.accept(engine);
+            epoch++;
+            lastSampleTime = Double.NEGATIVE_INFINITY;
+        });
+    }
+
+    /** Travels to {@code time}, clamped to {@link #getEarliestSeekTime()}; starts a new epoch. */
+    public void seek(double time) {
+        submitDiscontinuity(engine -> checkpoints.seek(engine, time));
+    }
+
+    /** Resets the engine and forgets every checkpoint; starts a new epoch. */
+    public void reset() {
+        submitDiscontinuity(engine -> {
+            engine.reset();
+            checkpoints.clear();
+            checkpoints.capture(engine);
+        });
+    }
+
+    public void setRunning(boolean running) { this.running = running; }
+    public boolean isRunning() { return running; }
+
+    /** Changes how many simulated seconds pass per wall-clock second. */
+    public void setTimeScale(double timeScale) {
+        submit(engine -> {
+            this.timeScale = timeScale;
+            applyWarp();
+        });
+    }
+
+    /** Runs the simulation {@code warp} times faster than the time scale; 1 for normal speed, or {@link #WARP_MAX}. */
+    public void setWarp(double warp) {
+        if (!(warp >= 1)) throw new IllegalArgumentException("warp must be at least 1: " + warp);
+        submit(engine -> {
+            this.warp = warp;
+            applyWarp();
+        });
+    }
+
+    /** Simulated time between two records in {@link #getSamples()}; defaults to the original 0.16 s. */
+    public void setSampleInterval(double sampleInterval) {
+        submit(engine -> this.sampleInterval = sampleInterval);
+    }
+
+    // ----------------------------
+    // Simulation thread
+    // ----------------------------
+    private void tick() {
+        try {
+            SimulationSnapshot previous = frameState.getCurrent();
+            Consumer<SimulationEngine> command;
+            boolean edited = false;
+            while ((command = commands.poll()) != null) {
+                command.accept(engine);
+                edited = true;
+            }
+            if (edited) previous = engine.snapshot(epoch); // never blend across an edit
+
+            long now = System.nanoTime();
+            int steps = 0;
+            if (!running) {
+                clock.pause();
+            } else if (warp == WARP_MAX) {
+                steps = stepUntil(now + (long) (tickNanos * WARP_MAX_BUSY));
+                clock.advanceUnpaced(steps, System.nanoTime());
+            } else {
+                steps = clock.advance(now);
+                for (int i = 0; i < steps; i++) step();
+            }
+            realTimeFactor = clock.getRealTimeFactor();
+            earliestSeekTime = checkpoints.getOldestTime();
+
+            // Blend over everything stepped this tick, so rendering trails the physics by one tick.
+            // Warped spans cover too much motion to blend meaningfully, so those are shown as is.
+            SimulationSnapshot current = steps > 0 ? engine.snapshot(epoch) : previous;
+            if (warp > 1) previous = current;
+            double span = current.getTime() - previous.getTime();
+            double spanWallNanos = running && span > 0 && clock.getTimeScale() > 0 ? span / clock.getTimeScale() * 1e9 : 0;
+            snapshot = current;
+            frameState = new FrameState(previous, current, now, span > 0 ? clock.getAccumulator() / span : 1, spanWallNanos);
+        } catch (RuntimeException e) {
+            // An exception would silently cancel the scheduled task, so report it and keep ticking,
+            // but paused: the engine may be half stepped and would only fail again
+            running = false;
+            if (!failed) {
+                failed = true;
+                System.out.println("Simulation step failed, pausing:");
+                e.printStackTrace();
+            } else {
+                System.out.println("Simulation step failed again, pausing: " + e);
+            }
+        }
+    }
+
+    private void step() {
+        checkpoints.resume(engine);
+        engine.step();
+        if (checkpoints.isDue(engine)) checkpoints.capture(engine);
+        if (engine.getTime() - lastSampleTime >= sampleInterval * sampleDecimation() - 1e-9) recordSample();
+    }
+
+    /** Steps in small batches until {@code deadlineNanos}; returns the number of steps taken. */
+    private int stepUntil(long deadlineNanos) {
+        int steps = 0;
+        do {
+            for (int i = 0; i < WARP_MAX_BATCH; i++) step();
+            steps += WARP_MAX_BATCH;
+        } while (System.nanoTime() < deadlineNanos);
+        return steps;
+    }
+
+    /** How much further apart samples are spaced in simulated time, so warping does not flood consumers. */
+    private double sampleDecimation() {
+        if (warp != WARP_MAX) return warp;
+        // Unpaced: spread by however far ahead of the time scale the last measurement ran
+        return timeScale > 0 ? Math.max(1, realTimeFactor / timeScale) : 1;
+    }
+
+    private void applyWarp() {
+        if (warp == WARP_MAX) return; // unpaced, the clock only measures
+        clock.setTimeScale(timeScale * warp);
+        clock.setMaxStepsPerFrame((int) Math.min(Integer.MAX_VALUE, Math.ceil(MAX_STEPS_PER_TICK * warp)));
+    }
+
+    private void recordSample() {
+        lastSampleTime = engine.getTime();
+        record[SAMPLE_EPOCH] = epoch;
+        record[SAMPLE_TIME] = engine.getTime();
+        int n = engine.getPendulumCount();
+        boolean chained = engine.isChained();
+        for (int i = 0; i < n; i++) sampleAngles[i] = engine.getPendulum(i).getAngle();
+        FastTrig.sinCos(sampleAngles, 0, n, sampleSin, sampleCos);
+        double height = 0, vx = 0, vy = 0; // bob height and velocity relative to the fixed pivot
+        for (int i = 0; i < n; i++) {
+            Pendulum p = engine.getPendulum(i);
+            double s = sampleSin[i];
+            double c = sampleCos[i];
+            record[SAMPLE_BOBS + 2 * i] = p.getPivotX() + p.getLength() * s;
+            record[SAMPLE_BOBS + 2 * i + 1] = p.getPivotY() + p.getLength() * c;
+            record[sampleBlock(SAMPLE_ANGLES, n) + i] = p.getAngle();
+            record[sampleBlock(SAMPLE_ANGULAR_VELOCITIES, n) + i] = p.getAngularVelocity();
+            record[sampleBlock(SAMPLE_ANGULAR_ACCELERATIONS, n) + i] = p.getAngularAcceleration();
+
+            // Same terms as PendulumSystem.computeEnergy, so the energies add up to the total
+            if (!chained) height = vx = vy = 0;
+            height += p.getLength() * c;
+            vx += p.getLength() * p.getAngularVelocity() * c;
+            vy -= p.getLength() * p.getAngularVelocity() * s;
+            record[sampleBlock(SAMPLE_ENERGIES, n) + i] = p.getMass() * (0.5 * (vx * vx + vy * vy) - Pendulum.GRAVITY * height);
+        }
+        samples.offer(record);
+    }
+
+    /** Record offset of quantity {@code block} (e.g. {@link #SAMPLE_ANGLES}) of the first of {@code pendulumCount} pendulums. */
+    public static int sampleBlock(int block, int pendulumCount) { return SAMPLE_BOBS + (2 + block) * pendulumCount; }
+
+    // ----------------------------
+    // Getters
+    // ----------------------------
+    /** Latest published state; never blocks. */
+    public SimulationSnapshot getSnapshot() { return snapshot; }
+
+    /** Latest pair of states for interpolated rendering; never blocks. */
+    public FrameState getFrameState() { return frameState; }
+    public SampleQueue getSamples() { return samples; }
+
+    /** Measured simulated seconds per wall second over about the last second. */
+    public double getRealTimeFactor() { return realTimeFactor; }
+
+    /** Earliest time {@link #seek} can reach; the latest is the current snapshot time. */
+    public double getEarliestSeekTime() { return earliestSeekTime; }
+
+    /** Warp currently in effect; changes once a {@link #setWarp} command has run. */
+    public double getWarp() { return warp; }
+}
@@ -0,0 +1,110 @@
+package pendulum;
+
+import java.util.List;
+
+/**
+ * Immutable copy of the simulation state at one instant, produced by
+ * {@link SimulationEngine#snapshot()}. Values are indexed by pendulum.
+ * Snapshots are safe to read from any thread once published.
+ */
+public final class SimulationSnapshot {
+
+    private final double time;
+    private final long stepCount;
+    private final int epoch;
+    private final double[] angles;
+    private final double[] angularVelocities;
+    private final double[] angularAccelerations;
+    private final double[] pivotX;
+    private final double[] pivotY;
+    private final double[] bobX;
+    private final double[] bobY;
+    private final double[] lengths;
+    private final double[] masses;
+    private final double[] initialAngles;
+    private final double[] initialAngularVelocities;
+
+    SimulationSnapshot(double time, long stepCount, int epoch, double[] angles, double[] angularVelocities,
+                       double[] angularAccelerations, double[] pivotX, double[] pivotY,
+                       double[] bobX, double[] bobY, double[] lengths, double[] masses,
+                       double[] initialAngles, double[] initialAngularVelocities) {
+        this.time = time;
+        this.stepCount = stepCount;
+        this.epoch = epoch;
+        this.angles = angles;
+        this.angularVelocities = angularVelocities;
+        this.angularAccelerations = angularAccelerations;
+        this.pivotX = pivotX;
+        this.pivotY = pivotY;
+        this.bobX = bobX;
+        this.bobY = bobY;
+        this.lengths = lengths;
+        this.masses = masses;
+        this.initialAngles = initialAngles;
+        this.initialAngularVelocities = initialAngularVelocities;
+    }
+
+    // ----------------------------
+    // Interpolation
+    // ----------------------------
+    /**
+     * Linear blend of two states, {@code alpha = 0} giving {@code from} and 1 giving {@code to}.
+     * Snapshots from different epochs or with different pendulum counts are not blended.
+     */
+    public static SimulationSnapshot interpolate(SimulationSnapshot from, SimulationSnapshot to, double alpha) {
+        if (alpha >= 1 || from == to || from.epoch != to.epoch || from.angles.length != to.angles.length) return to;
+        if (alpha <= 0) return from;
+        return new SimulationSnapshot(
+                lerp(from.time, to.time, alpha), to.stepCount, to.epoch,
+                lerp(from.angles, to.angles, alpha),
+                lerp(from.angularVelocities, to.angularVelocities, alpha),
+                lerp(from.angularAccelerations, to.angularAccelerations, alpha),
+                lerp(from.pivotX, to.pivotX, alpha),
+                lerp(from.pivotY, to.pivotY, alpha),
+                lerp(from.bobX, to.bobX, alpha),
+                lerp(from.bobY, to.bobY, alpha),
+                to.lengths, to.masses, to.initialAngles, to.initialAngularVelocities);
+    }
+
+    private static double lerp(double a, double b, double alpha) {
+        return a + (b - a) * alpha;
+    }
+
+    private static double[] lerp(double[] a, double[] b, double alpha) {
+        double[] out = new double[a.length];
+        for (int i = 0; i < a.length; i++) out[i] = lerp(a[i], b[i], alpha);
+        return out;
+    }
+
+    // ----------------------------
+    // Data Retrieval
+    // ----------------------------
+    /** Same rows as {@link Pendulum#getPendulumData(double)} for pendulum {@code i}. */
+    public List<DataElement> getPendulumData(int i) {
+        Pendulum p = new Pendulum(lengths[i], masses[i], pivotX[i], pivotY[i], initialAngles[i], initialAngularVelocities[i]);
+        p.setState(angles[i], angularVelocities[i], angularAccelerations[i]);
+        return p.getPendulumData(time);
+    }
+
+    // ----------------------------
+    // Getters
+    // ----------------------------
+    public double getTime() { return time; }
+    public long getStepCount() { return stepCount; }
+    /** Incremented on discontinuities such as a reset; samples from an older epoch are stale. */
+    public int getEpoch() { return epoch; }
+    public int getPendulumCount() { return angles.length; }
+
+    public double getAngle(int i) { return angles[i]; }
+    public double getAngularVelocity(int i) { return angularVelocities[i]; }
+    public double getAngularAcceleration(int i) { return angularAccelerations[i]; }
+    public double getPivotX(int i) { return pivotX[i]; }
+    public double getPivotY(int i) { return pivotY[i]; }
+    public double getBobX(int i) { return bobX[i]; }
+    public double getBobY(int i) { return bobY[i]; }
+    public double getLength(int i) { return lengths[i]; }
+    public double getMass(int i) { return masses[i]; }
+
+    public double getVelocityX(int i) { return angularVelocities[i] * lengths[i] * FastTrig.cos(angles[i]); }
+    public double getVelocityY(int i) { return angularVelocities[i] * lengths[i] * FastTrig.sin(angles[i]); }
+}
@@ -0,0 +1,33 @@
+package pendulum;
+
+/**
+ * Evenly spaced values from {@code start} to {@code end} inclusive, used as one
+ * axis of a {@link ParameterSweep} grid. A count of 1 yields just {@code start}.
+ */
+public final class SweepRange {
+
+    private final double start;
+    private final double end;
+    private final int count;
+
+    public SweepRange(double start, double end, int count) {
+        if (count < 1) throw new IllegalArgumentException("count must be at least 1: " + count);
+        this.start = start;
+        this.end = end;
+        this.count = count;
+    }
+
+    /** A range holding the single value {@code value}. */
+    public static SweepRange of(double value) {
+        return new SweepRange(value, value, 1);
+    }
+
+    public double valueAt(int index) {
+        if (count == 1) return start;
+        return start + (end - start) * index / (count - 1);
+    }
+
+    public double getStart() { return start; }
+    public double getEnd() { return end; }
+    public int getCount() { return count; }
+}
@@ -0,0 +1,63 @@
+package pendulum;
+
+/**
+ * Per-run summary metrics of a {@link ParameterSweep}, stored as primitive columns.
+ * Run {@code k} corresponds to grid indices
+ * {@code k = (angleIndex * velocityCount + velocityIndex) * lengthCount + lengthIndex}.
+ */
+public final class SweepResult {
+
+    private final SweepRange angles;
+    private final SweepRange angularVelocities;
+    private final SweepRange lengths;
+
+    final double[] finalAngle;
+    final double[] finalAngularVelocity;
+    final double[] maxAngle;
+    final double[] period;
+
+    SweepResult(SweepRange angles, SweepRange angularVelocities, SweepRange lengths) {
+        this.angles = angles;
+        this.angularVelocities = angularVelocities;
+        this.lengths = lengths;
+        int runs = runCount(angles, angularVelocities, lengths);
+        finalAngle = new double[runs];
+        finalAngularVelocity = new double[runs];
+        maxAngle = new double[runs];
+        period = new double[runs];
+    }
+
+    /** Number of grid points, rejected when the result columns could not hold that many. */
+    static int runCount(SweepRange angles, SweepRange angularVelocities, SweepRange lengths) {
+        long runs = (long) angles.getCount() * angularVelocities.getCount() * lengths.getCount();
+        if (runs > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("too many runs for one sweep: " + runs);
+        return (int) runs;
+    }
+
+    // ----------------------------
+    // Grid parameters of run k
+    // ----------------------------
+    public int size() { return finalAngle.length; }
+
+    public double getInitialAngle(int k) {
+        return angles.valueAt(k / (angularVelocities.getCount() * lengths.getCount()));
+    }
+
+    public double getInitialAngularVelocity(int k) {
+        return angularVelocities.valueAt((k / lengths.getCount()) % angularVelocities.getCount());
+    }
+
+    public double getLength(int k) {
+        return lengths.valueAt(k % lengths.getCount());
+    }
+
+    // ----------------------------
+    // Metrics of run k
+    // ----------------------------
+    public double getFinalAngle(int k) { return finalAngle[k]; }
+    public double getFinalAngularVelocity(int k) { return finalAngularVelocity[k]; }
+    /** Largest {@code |angle|} reached during the run. */
+    public double getMaxAngle(int k) { return maxAngle[k]; }
+    /** Oscillation period measured from zero crossings, or {@code NaN} if fewer than a full cycle was seen. */
+    public double getPeriod(int k) { return period[k]; }
+}
@@ -0,0 +1,43 @@
+package pendulum;
+
+/**
+ * Fixed-capacity ring of trail points for several tracks (one per pendulum), kept in primitive
+ * columns.
+ *
+ * <p>Each row holds one sample of every track: {@code x}, {@code y}, angle and angular velocity
+ * columns per track and a single shared {@code time} column, so a point costs
+ * {@code 16 + 8 / tracks} bytes and the whole trail fits a memory budget through
+ * {@link #capacityFor}. The angle and velocity are the pendulum's own, as sampled, so readers
+ * never have to reconstruct them from positions. Summary levels of a {@link TrailPyramid} also
+ * keep the time of each track's point, which costs another 4 bytes per point. Once full, each append overwrites the
+ * oldest row instead of shifting the history the way {@code ArrayList.remove(0)} did, and rows
+ * carry sequence numbers; see {@link ColumnRing}.
+ */
+public class TrailBuffer extends ColumnRing {
+
+    /** Columns of a track, in row order: x, y, angle, angular velocity. */
+    public static final int TRACK_COLUMNS = 4;
+
+    /** With {@code trackTimes}, each track's point keeps its own time, see {@link #getTime(int, int)}. */
+    public TrailBuffer(int tracks, boolean trackTimes, int capacity) {
+        super(tracks, TRACK_COLUMNS, trackTimes, capacity);
+    }
+
+    /** Rows of {@code tracks} tracks that fit in {@code budgetBytes}. */
+    public static int capacityFor(long budgetBytes, int tracks, boolean trackTimes) {
+        return ColumnRing.capacityFor(budgetBytes, tracks, TRACK_COLUMNS, trackTimes);
+    }
+
+    // ----------------------------
+    // Getters
+    // ----------------------------
+    public int getTrackCount() { return getGroupCount(); }
+
+    /** Coordinates of {@code track} in row {@code index}, {@code 0} being the oldest. */
+    public float getX(int track, int index) { return getValue(TRACK_COLUMNS * track, index); }
+    public float getY(int track, int index) { return getValue(TRACK_COLUMNS * track + 1, index); }
+
+    /** Angle and angular velocity of {@code track}'s pendulum in row {@code index}. */
+    public float getAngle(int track, int index) { return getValue(TRACK_COLUMNS * track + 2, index); }
+    public float getAngularVelocity(int track, int index) { return getValue(TRACK_COLUMNS * track + 3, index); }
+}
@@ -0,0 +1,251 @@
+package pendulum;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Unbounded trail history: the newest block of rows stays on the heap and every full block is
+ * spilled to a memory-mapped data file, next to a sparse index file holding each block's first
+ * and last time.
+ *
+ * <p>A block stores its rows as columns: {@link #BLOCK_ROWS} times, then the x and y floats of
+ * each track, so a row costs {@code 8 + 8 * tracks} bytes on disk. {@link #truncate} finds its
+ * cut by binary searching the index and then one block. Only a fixed number of file segments of
+ * at most {@link #MAX_SEGMENT_BYTES} are mapped at once, so heap usage does not depend on how long
+ * the run lasts.
+ */
+public class TrailHistory implements AutoCloseable {
+
+    public static final int BLOCK_ROWS = 4096;
+    public static final int MAX_SEGMENT_BYTES = 1 << 30;
+    private static final int MAX_BLOCKS_PER_SEGMENT = 256;
+    private static final int INDEX_ENTRY_BYTES = 2 * Double.BYTES; // first and last time
+
+    private final int tracks;
+    private final MappedFile data;
+    private final MappedFile index;
+    private boolean temporary = false; // files are deleted on close
+
+    // Newest rows, not yet spilled
+    private final double[] tailTime = new double[BLOCK_ROWS];
+    private final float[][] tailX;
+    private final float[][] tailY;
+    private int tailSize = 0;
+    private long blocks = 0; // spilled blocks
+
+    /** Creates a history of {@code tracks} tracks backed by two new files next to {@code basePath}. */
+    public TrailHistory(int tracks, Path basePath) throws IOException {
+        if (tracks < 1) throw new IllegalArgumentException("tracks must be at least 1: " + tracks);
+        long bytes = (long) BLOCK_ROWS * (Double.BYTES + 2L * Float.BYTES * tracks);
+        if (bytes > MAX_SEGMENT_BYTES) throw new IllegalArgumentException("too many tracks for one block per segment: " + tracks);
+        this.tracks = tracks;
+        int blockBytes = (int) bytes;
+        this.tailX = new float[tracks][BLOCK_ROWS];
+        this.tailY = new float[tracks][BLOCK_ROWS];
+        // Both files index by block, so they share one segment length in blocks
+        int blocksPerSegment = Math.min(MAX_BLOCKS_PER_SEGMENT, MAX_SEGMENT_BYTES / blockBytes);
+        this.data = new MappedFile(basePath.resolveSibling(basePath.getFileName() + ".data"), blockBytes, blocksPerSegment);
+        this.index = new MappedFile(basePath.resolveSibling(basePath.getFileName() + ".index"), INDEX_ENTRY_BYTES, blocksPerSegment);
+    }
+
+    /** Creates a history in temporary files that are deleted on {@link #close()}, or else on exit. */
+    public static TrailHistory createTemporary(int tracks) throws IOException {
+        Path base = Files.createTempFile("pendulum-trail", "");
+        Files.delete(base);
+        TrailHistory history = new TrailHistory(tracks, base);
+        history.temporary = true;
+        history.data.path.toFile().deleteOnExit();
+        history.index.path.toFile().deleteOnExit();
+        return history;
+    }
+
+    // ----------------------------
+    // Updating
+    // ----------------------------
+    /**
+     * Appends one row; track {@code t}'s point is read from {@code coordinates[offset + 2t]} and
+     * {@code coordinates[offset + 2t + 1]}. Times must not decrease, see {@link #truncate}.
+     */
+    public void add(double time, double[] coordinates, int offset) {
+        tailTime[tailSize] = time;
+        for (int t = 0; t < tracks; t++) {
+            tailX[t][tailSize] = (float) coordinates[offset + 2 * t];
+            tailY[t][tailSize] = (float) coordinates[offset + 2 * t + 1];
+        }
+        if (++tailSize == BLOCK_ROWS) spill();
+    }
+
+    private void spill() {
+        MappedByteBuffer buffer = data.segment(blocks);
+        int base = data.offsetOf(blocks);
+        for (int i = 0; i < BLOCK_ROWS; i++) buffer.putDouble(base + i * Double.BYTES, tailTime[i]);
+        int column = base + BLOCK_ROWS * Double.BYTES;
+        for (int t = 0; t < tracks; t++) {
+            for (int i = 0; i < BLOCK_ROWS; i++) buffer.putFloat(column + i * Float.BYTES, tailX[t][i]);
+            column += BLOCK_ROWS * Float.BYTES;
+            for (int i = 0; i < BLOCK_ROWS; i++) buffer.putFloat(column + i * Float.BYTES, tailY[t][i]);
+            column += BLOCK_ROWS * Float.BYTES;
+        }
+        MappedByteBuffer entries = index.segment(blocks);
+        int entry = index.offsetOf(blocks);
+        entries.putDouble(entry, tailTime[0]);
+        entries.putDouble(entry + Double.BYTES, tailTime[BLOCK_ROWS - 1]);
+        blocks++;
+        tailSize = 0;
+    }
+
+    /** Drops every row at or after {@code time}, e.g. when the simulation seeks backwards. */
+    public void truncate(double time) {
+        long keep = findRow(time);
+        if (keep >= size()) return;
+        long keepBlocks = keep / BLOCK_ROWS;
+        int keepRows = (int) (keep % BLOCK_ROWS);
+        if (keepBlocks < blocks) {
+            // Pull the partly kept block back onto the heap
+            for (int i = 0; i < keepRows; i++) {
+                long row = keepBlocks * BLOCK_ROWS + i;
+                tailTime[i] = getTime(row);
+                for (int t = 0; t < tracks; t++) {
+                    tailX[t][i] = getX(t, row);
+                    tailY[t][i] = getY(t, row);
+                }
+            }
+            blocks = keepBlocks;
+        }
+        tailSize = keepRows;
+    }
+
+    public void clear() {
+        blocks = 0;
+        tailSize = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        data.close();
+        index.close();
+        if (temporary) {
+            data.delete();
+            index.delete();
+        }
+    }
+
+    // ----------------------------
+    // Reading
+    // ----------------------------
+    private long size() { return blocks * BLOCK_ROWS + tailSize; }
+
+    /** Index of the first row whose time is at least {@code time}, or {@link #size()} if none is. */
+    private long findRow(double time) {
+        // The index narrows it to one block
+        long low = 0;
+        long high = blocks;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (index.segment(mid).getDouble(index.offsetOf(mid) + Double.BYTES) < time) low = mid + 1;
+            else high = mid;
+        }
+        long first = low * BLOCK_ROWS;
+        long lowRow = first;
+        long highRow = low < blocks ? first + BLOCK_ROWS : first + tailSize;
+        while (lowRow < highRow) {
+            long mid = (lowRow + highRow) >>> 1;
+            if (getTime(mid) < time) lowRow = mid + 1;
+            else highRow = mid;
+        }
+        return lowRow;
+    }
+
+    /** Time of row {@code row}, {@code 0} being the oldest. */
+    private double getTime(long row) {
+        long block = row / BLOCK_ROWS;
+        int i = (int) (row % BLOCK_ROWS);
+        if (block == blocks) return tailTime[i];
+        return data.segment(block).getDouble(data.offsetOf(block) + i * Double.BYTES);
+    }
+
+    private float getX(int track, long row) { return coordinate(track, 0, row); }
+    private float getY(int track, long row) { return coordinate(track, 1, row); }
+
+    private float coordinate(int track, int axis, long row) {
+        long block = row / BLOCK_ROWS;
+        int i = (int) (row % BLOCK_ROWS);
+        if (block == blocks) return axis == 0 ? tailX[track][i] : tailY[track][i];
+        int column = BLOCK_ROWS * (Double.BYTES + Float.BYTES * (2 * track + axis));
+        return data.segment(block).getFloat(data.offsetOf(block) + column + i * Float.BYTES);
+    }
+
+    // ----------------------------
+    // Mapped file
+    // ----------------------------
+    /** A file of fixed-size entries mapped a segment of entries at a time, a few segments at once. */
+    private static final class MappedFile {
+        private static final int CACHED_SEGMENTS = 4;
+
+        private final Path path;
+        private final FileChannel channel;
+        private final int entryBytes;
+        private final int entriesPerSegment;
+        private final long segmentBytes;   // at most MAX_SEGMENT_BYTES, so offsets fit an int
+        private final long[] cachedIds = new long[CACHED_SEGMENTS];
+        private final MappedByteBuffer[] cached = new MappedByteBuffer[CACHED_SEGMENTS];
+        private int nextVictim = 0;
+
+        private MappedFile(Path path, int entryBytes, int entriesPerSegment) throws IOException {
+            this.path = path;
+            this.entryBytes = entryBytes;
+            this.entriesPerSegment = entriesPerSegment;
+            this.segmentBytes = (long) entryBytes * entriesPerSegment;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Arrays.fill(cachedIds, -1);
+        }
+
+        /** Byte offset of entry {@code entry} inside its segment. */
+        private int offsetOf(long entry) {
+            return (int) (entry % entriesPerSegment) * entryBytes;
+        }
+
+        /** The mapped segment holding entry {@code entry}; entries never straddle segments. */
+        private MappedByteBuffer segment(long entry) {
+            long id = entry / entriesPerSegment;
+            for (int i = 0; i < CACHED_SEGMENTS; i++) {
+                if (cachedIds[i] == id) return cached[i];
+            }
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, id * segmentBytes, segmentBytes);
+                buffer.order(ByteOrder.nativeOrder());
+                cachedIds[nextVictim] = id;
+                cached[nextVictim] = buffer;
+                nextVictim = (nextVictim + 1) % CACHED_SEGMENTS;
+                return buffer;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not map trail history " + path, e);
+            }
+        }
+
+        private void close() throws IOException {
+            Arrays.fill(cached, null);
+            channel.close();
+        }
+
+        /**
+         * Deletes the file. Where mapped files cannot be deleted until their buffers are collected
+         * (Windows), it is left to the delete-on-exit hook instead.
+         */
+        private void delete() {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                // still mapped; deleteOnExit retries
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package pendulum;
+
+import java.util.Arrays;
+
+/**
+ * Grid hash over the points of a {@link TrailBuffer}, for nearest-point queries in simulation
+ * coordinates.
+ *
+ * <p>Every point of every track is an entry in a chain hanging off the hash bucket of its
+ * {@link #CELL_SIZE} cell; entries are prepended, so each chain runs newest to oldest. Entries
+ * live in slots tied to the trail's ring slots, so the index never grows. Evicted points are never
+ * unlinked: a query stops walking a chain at the first entry that is evicted, was overwritten by a
+ * newer point, or now belongs to another bucket, since everything after it is older still.
+ * Appending is O(1) per point and a query only visits the cells around it.
+ */
+public class TrailIndex {
+
+    /** Side of a grid cell, in simulation units. */
+    public static final double CELL_SIZE = 16;
+
+    private TrailBuffer indexed;
+    private int generation = -1;
+    private int capacity = -1;
+    private int tracks;
+    private long scanned;       // next sequence number to insert
+    private int[] heads = new int[0];
+    private int[] next;         // entry -> older entry in the same bucket, -1 at the end
+    private long[] rowSequence; // ring slot -> sequence number stored there
+    private int mask;
+
+    private int hitIndex = -1;
+    private int hitTrack = -1;
+
+    // ----------------------------
+    // Updating
+    // ----------------------------
+    /** Indexes the points appended to {@code trail} since the last call. */
+    public void update(TrailBuffer trail) {
+        if (trail != indexed || trail.getGeneration() != generation || trail.getCapacity() != capacity
+                || trail.getTrackCount() != tracks) {
+            reset(trail);
+        }
+        long first = trail.getFirstSequence();
+        long end = first + trail.size();
+        if (scanned < first) scanned = first;
+        for (; scanned < end; scanned++) insert(trail, scanned);
+    }
+
+    private void reset(TrailBuffer trail) {
+        indexed = trail;
+        generation = trail.getGeneration();
+        capacity = trail.getCapacity();
+        tracks = trail.getTrackCount();
+        scanned = trail.getFirstSequence();
+        int entries = capacity * tracks;
+        int buckets = Integer.highestOneBit(Math.max(16, entries * 2 - 1)) << 1;
+        if (heads.length != buckets) heads = new int[buckets];
+        Arrays.fill(heads, -1);
+        mask = buckets - 1;
+        next = new int[entries];
+        rowSequence = new long[capacity];
+    }
+
+    private void insert(TrailBuffer trail, long sequence) {
+        int row = (int) (sequence % capacity);
+        rowSequence[row] = sequence;
+        int index = trail.indexOf(sequence);
+        for (int t = 0; t < tracks; t++) {
+            int entry = row * tracks + t;
+            int bucket = bucketOf(trail.getX(t, index), trail.getY(t, index));
+            next[entry] = heads[bucket];
+            heads[bucket] = entry;
+        }
+    }
+
+    // ----------------------------
+    // Queries
+    // ----------------------------
+    /**
+     * Finds the point nearest to {@code (x, y)} within {@code radius}, over all tracks. Returns
+     * the trail index of that point, or -1 if none is that close; {@link #getHitTrack()} then
+     * tells which track it belongs to.
+     */
+    public int nearest(TrailBuffer trail, double x, double y, double radius) {
+        update(trail);
+        hitIndex = -1;
+        hitTrack = -1;
+        double best = radius * radius;
+        long first = trail.getFirstSequence();
+        int minCellX = cell(x - radius);
+        int maxCellX = cell(x + radius);
+        int minCellY = cell(y - radius);
+        int maxCellY = cell(y + radius);
+        for (int cx = minCellX; cx <= maxCellX; cx++) {
+            for (int cy = minCellY; cy <= maxCellY; cy++) {
+                int bucket = hash(cx, cy);
+                long previousKey = Long.MAX_VALUE;
+                for (int entry = heads[bucket]; entry >= 0; entry = next[entry]) {
+                    long sequence = rowSequence[entry / tracks];
+                    int track = entry % tracks;
+                    long key = sequence * tracks + track; // insertion order
+                    if (sequence < first || key >= previousKey) break;
+                    int index = trail.indexOf(sequence);
+                    float px = trail.getX(track, index);
+                    float py = trail.getY(track, index);
+                    if (bucketOf(px, py) != bucket) break;
+                    previousKey = key;
+                    double dx = px - x;
+                    double dy = py - y;
+                    double distance = dx * dx + dy * dy;
+                    if (distance <= best) {
+                        best = distance;
+                        hitIndex = index;
+                        hitTrack = track;
+                    }
+                }
+            }
+        }
+        return hitIndex;
+    }
+
+    /** Track of the point found by the last {@link #nearest} call, or -1. */
+    public int getHitTrack() { return hitTrack; }
+
+    // ----------------------------
+    // Hashing
+    // ----------------------------
+    private static int cell(double coordinate) { return (int) Math.floor(coordinate / CELL_SIZE); }
+
+    private int bucketOf(double x, double y) { return hash(cell(x), cell(y)); }
+
+    private int hash(int cellX, int cellY) {
+        int h = cellX * 0x9E3779B1 + cellY * 0x85EBCA77;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
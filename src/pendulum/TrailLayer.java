@@ -0,0 +1,133 @@
+package pendulum;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Keeps the trail rasterized in an off-screen image so a frame only draws what was appended since
+ * the previous one, then blits the image.
+ *
+ * <p>The trail comes from a {@link TrailPyramid}: the level chosen for the zoom is drawn on top,
+ * and each coarser level fills in only the history older than the level above it.
+ *
+ * <p>The image covers the clip plus {@link #MARGIN} pixels on every side, so panning by less than
+ * the margin just moves the blit. The image is rebuilt, through {@link TrailRenderer}, when the
+ * zoom changes, the camera pans beyond the margin, the trail is cleared, or enough old points have
+ * been evicted from the ring that their stale segments are worth erasing. Between rebuilds the
+ * cost per frame is O(new points), independent of the trail length.
+ */
+public class TrailLayer {
+
+    public static final int MARGIN = 256;
+    /** Share of the trail capacity that may be evicted before the stale tail is erased. */
+    private static final double EVICTION_REBUILD_FRACTION = 0.1;
+
+    private final TrailRenderer[] renderers = new TrailRenderer[TrailPyramid.LEVELS];
+    private BufferedImage image;
+    private int imageX;           // screen position of the image's top-left corner when built
+    private int imageY;
+    private int builtOffsetX;
+    private int builtOffsetY;
+    private double builtZoom = Double.NaN;
+    private int builtLevel = -1;
+    private int builtGeneration = -1;
+    private long builtFirstSequence;
+    private long drawnUpTo;       // sequence number of the newest point already rasterized
+    private int rebuilds = 0;
+    private BasicStroke stroke;
+
+    public TrailLayer() {
+        for (int k = 0; k < renderers.length; k++) renderers[k] = new TrailRenderer();
+    }
+
+    /** Draws every track of {@code pyramid} scaled by {@code zoom} and shifted by the offsets, inside the current clip. */
+    public void draw(Graphics2D g2, TrailPyramid pyramid, double zoom, int offsetX, int offsetY) {
+        Rectangle clip = g2.getClipBounds();
+        if (clip == null || clip.isEmpty()) return;
+
+        int level = pyramid.levelForZoom(zoom, TrailRenderer.MIN_PIXEL_DISTANCE);
+        TrailBuffer trail = pyramid.getLevel(level);
+        if (level != builtLevel || needsRebuild(clip, trail, zoom, offsetX, offsetY)) rebuild(g2, clip, pyramid, level, zoom, offsetX, offsetY);
+        else appendNew(trail);
+
+        g2.drawImage(image, imageX + offsetX - builtOffsetX, imageY + offsetY - builtOffsetY, null);
+    }
+
+    /** Number of full redraws so far, for diagnostics. */
+    public int getRebuildCount() { return rebuilds; }
+
+    // ----------------------------
+    // Rasterizing
+    // ----------------------------
+    private boolean needsRebuild(Rectangle clip, TrailBuffer trail, double zoom, int offsetX, int offsetY) {
+        if (image == null || image.getWidth() != clip.width + 2 * MARGIN || image.getHeight() != clip.height + 2 * MARGIN) return true;
+        if (zoom != builtZoom || trail.getGeneration() != builtGeneration) return true;
+        if (Math.abs(offsetX - builtOffsetX) > MARGIN || Math.abs(offsetY - builtOffsetY) > MARGIN) return true;
+        long evicted = trail.getFirstSequence() - builtFirstSequence;
+        return evicted > Math.max(1, trail.getCapacity() * EVICTION_REBUILD_FRACTION);
+    }
+
+    private void rebuild(Graphics2D target, Rectangle clip, TrailPyramid pyramid, int level, double zoom, int offsetX, int offsetY) {
+        TrailBuffer trail = pyramid.getLevel(level);
+        int width = clip.width + 2 * MARGIN;
+        int height = clip.height + 2 * MARGIN;
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            GraphicsConfiguration config = target.getDeviceConfiguration();
+            image = config != null
+                    ? config.createCompatibleImage(width, height, Transparency.TRANSLUCENT)
+                    : new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+        imageX = clip.x - MARGIN;
+        imageY = clip.y - MARGIN;
+        builtOffsetX = offsetX;
+        builtOffsetY = offsetY;
+        builtZoom = zoom;
+        builtLevel = level;
+        builtGeneration = trail.getGeneration();
+        builtFirstSequence = trail.getFirstSequence();
+        drawnUpTo = builtFirstSequence + trail.size() - 1;
+        rebuilds++;
+
+        Graphics2D g = image.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, width, height);
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setClip(0, 0, width, height);
+        // Oldest history first, each level stopping where the finer one above it begins
+        double before = Double.POSITIVE_INFINITY;
+        double[] cutoffs = new double[TrailPyramid.LEVELS];
+        for (int k = level; k < TrailPyramid.LEVELS; k++) {
+            cutoffs[k] = before;
+            TrailBuffer rows = pyramid.getLevel(k);
+            if (!rows.isEmpty()) before = rows.getTime(0);
+        }
+        for (int k = TrailPyramid.LEVELS - 1; k >= level; k--) {
+            renderers[k].draw(g, pyramid.getLevel(k), zoom, offsetX - imageX, offsetY - imageY, cutoffs[k]);
+        }
+        g.dispose();
+    }
+
+    private void appendNew(TrailBuffer trail) {
+        long newest = trail.getFirstSequence() + trail.size() - 1;
+        if (newest <= drawnUpTo) return;
+        long from = Math.max(drawnUpTo, trail.getFirstSequence());
+
+        Graphics2D g = image.createGraphics();
+        stroke = TrailRenderer.strokeFor(builtZoom, stroke);
+        g.setStroke(stroke);
+        int shiftX = builtOffsetX - imageX;
+        int shiftY = builtOffsetY - imageY;
+        int previous = trail.indexOf(from);
+        for (long sequence = from + 1; sequence <= newest; sequence++) {
+            int next = trail.indexOf(sequence);
+            for (int t = 0; t < trail.getTrackCount(); t++) {
+                g.setColor(TrailPalette.colorAt((trail.getTime(t, previous) + trail.getTime(t, next)) / 2.0));
+                g.drawLine((int) (trail.getX(t, previous) * builtZoom) + shiftX, (int) (trail.getY(t, previous) * builtZoom) + shiftY,
+                        (int) (trail.getX(t, next) * builtZoom) + shiftX, (int) (trail.getY(t, next) * builtZoom) + shiftY);
+            }
+            previous = next;
+        }
+        g.dispose();
+        drawnUpTo = newest;
+    }
+}
@@ -0,0 +1,31 @@
+package pendulum;
+
+import java.awt.Color;
+
+/**
+ * The trail's time-to-colour mapping, quantized into a fixed palette so renderers can group
+ * segments by colour and never call {@link Color#getHSBColor} per point.
+ */
+public final class TrailPalette {
+
+    /** Seconds for one trip around the colour wheel. */
+    public static final double HUE_PERIOD = 10;
+    public static final int BUCKETS = 64;
+
+    private static final Color[] COLORS = new Color[BUCKETS];
+    static {
+        for (int i = 0; i < BUCKETS; i++) COLORS[i] = Color.getHSBColor((i + 0.5f) / BUCKETS, 1.0f, 1.0f);
+    }
+
+    private TrailPalette() {}
+
+    /** Palette index for a sample taken at {@code time}. */
+    public static int bucket(double time) {
+        double phase = (time % HUE_PERIOD) / HUE_PERIOD;
+        if (phase < 0) phase += 1;
+        return Math.min(BUCKETS - 1, (int) (phase * BUCKETS));
+    }
+
+    public static Color color(int bucket) { return COLORS[bucket]; }
+    public static Color colorAt(double time) { return COLORS[bucket(time)]; }
+}
@@ -0,0 +1,87 @@
+package pendulum;
+
+/**
+ * Trail kept at several resolutions under one memory budget: level {@code 0} holds every sample,
+ * and each coarser level summarizes {@link #FANOUT} rows of the level below in two rows.
+ *
+ * <p>The two rows of a summary are, for each track, the points where x was smallest and largest,
+ * in the order they happened, together with the angle and angular velocity at those points, so
+ * the swing extremes survive any number of levels; see
+ * {@link ColumnPyramid}. Every level is a {@link TrailBuffer}, so the same renderers draw any of
+ * them.
+ */
+public class TrailPyramid extends ColumnPyramid<TrailBuffer> {
+
+    private final int tracks;
+    private final double[] row; // one level-0 row, flattened
+    private final double[] spacingSum = new double[LEVELS];
+    private final long[] spacingCount = new long[LEVELS];
+
+    public TrailPyramid(int tracks, long budgetBytes) {
+        super(tracks, TrailBuffer.TRACK_COLUMNS, budgetBytes, (capacity, trackTimes) -> new TrailBuffer(tracks, trackTimes, capacity));
+        this.tracks = tracks;
+        row = new double[TrailBuffer.TRACK_COLUMNS * tracks];
+    }
+
+    // ----------------------------
+    // Updating
+    // ----------------------------
+    /** Appends a {@link SimulationLoop} sample record. */
+    public void add(double[] record) {
+        for (int t = 0; t < tracks; t++) {
+            int column = TrailBuffer.TRACK_COLUMNS * t;
+            row[column] = Channel.BOB_X.read(record, t, tracks);
+            row[column + 1] = Channel.BOB_Y.read(record, t, tracks);
+            row[column + 2] = Channel.ANGLE.read(record, t, tracks);
+            row[column + 3] = Channel.ANGULAR_VELOCITY.read(record, t, tracks);
+        }
+        add(record[SimulationLoop.SAMPLE_TIME], row, 0);
+    }
+
+    @Override
+    protected void appended(int level) {
+        TrailBuffer buffer = getLevel(level);
+        int last = buffer.size() - 1;
+        if (last < 1) return;
+        for (int t = 0; t < tracks; t++) {
+            spacingSum[level] += Math.hypot(buffer.getX(t, last) - buffer.getX(t, last - 1),
+                    buffer.getY(t, last) - buffer.getY(t, last - 1));
+        }
+        spacingCount[level] += tracks;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        for (int k = 0; k < LEVELS; k++) {
+            spacingSum[k] = 0;
+            spacingCount[k] = 0;
+        }
+    }
+
+    // ----------------------------
+    // Level selection
+    // ----------------------------
+    /**
+     * Finest level whose rows are on average at least {@code minPixels} apart at {@code zoom};
+     * finer levels would only add points the renderer culls anyway.
+     */
+    public int levelForZoom(double zoom, double minPixels) {
+        int chosen = 0;
+        for (int k = 1; k < LEVELS; k++) {
+            if (getLevel(k).size() < 2 || getMeanSpacing(k - 1) * zoom >= minPixels) break;
+            chosen = k;
+        }
+        return chosen;
+    }
+
+    // ----------------------------
+    // Getters
+    // ----------------------------
+    public int getTrackCount() { return tracks; }
+
+    /** Average distance between consecutive rows of {@code level}, in world units. */
+    public double getMeanSpacing(int level) {
+        return spacingCount[level] == 0 ? 0 : spacingSum[level] / spacingCount[level];
+    }
+}
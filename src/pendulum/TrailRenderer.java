@@ -0,0 +1,202 @@
+package pendulum;
+
+import java.awt.*;
+import java.awt.geom.Path2D;
+
+/**
+ * Draws the tracks of a {@link TrailBuffer} with level of detail chosen in screen space.
+ *
+ * <p>A point is kept only if it lies at least {@link #MIN_PIXEL_DISTANCE} pixels from the last
+ * kept point at the current zoom, so stretches of history that collapse onto a few pixels cost a
+ * few segments. Panning only translates the screen, so the kept points are cached by sequence
+ * number and extended incrementally as samples arrive; they are rebuilt only when the zoom
+ * changes or the trail is cleared. Segments with both ends beyond the same edge of the clip are
+ * skipped without drawing. Per frame the work is proportional to the kept points, not to the
+ * length of the history.
+ *
+ * <p>Segments are coloured from {@link TrailPalette} and collected into one {@link Path2D} per
+ * palette bucket, consecutive same-coloured segments forming a single subpath, so a frame issues
+ * at most {@link TrailPalette#BUCKETS} draw calls and no per-segment colour or stroke changes.
+ */
+public class TrailRenderer {
+
+    public static final double MIN_PIXEL_DISTANCE = 1.5;
+
+    private Track[] tracks = new Track[0];
+    private double cachedZoom = Double.NaN;
+    private int cachedGeneration = -1;
+
+    private final Path2D.Float[] paths = new Path2D.Float[TrailPalette.BUCKETS];
+    private final boolean[] used = new boolean[TrailPalette.BUCKETS];
+    private BasicStroke stroke;
+
+    public TrailRenderer() {
+        for (int i = 0; i < paths.length; i++) paths[i] = new Path2D.Float();
+    }
+
+    /**
+     * Draws every track of {@code trail} scaled by {@code zoom} and shifted by the offsets, inside
+     * the current clip. All tracks share the bucket paths, so the draw calls do not grow with the
+     * number of tracks.
+     */
+    public void draw(Graphics2D g2, TrailBuffer trail, double zoom, int offsetX, int offsetY) {
+        draw(g2, trail, zoom, offsetX, offsetY, Double.POSITIVE_INFINITY);
+    }
+
+    /** Like {@link #draw(Graphics2D, TrailBuffer, double, int, int)}, but stops at the first segment starting at or after {@code before}. */
+    public void draw(Graphics2D g2, TrailBuffer trail, double zoom, int offsetX, int offsetY, double before) {
+        update(trail, zoom);
+        int newest = trail.size() - 1;
+        if (newest < 1) return;
+
+        Rectangle clip = g2.getClipBounds();
+        for (int b = 0; b < paths.length; b++) {
+            if (used[b]) paths[b].reset();
+            used[b] = false;
+        }
+        boolean any = false;
+        for (int t = 0; t < tracks.length; t++) any |= collect(tracks[t], trail, t, newest, before, clip, zoom, offsetX, offsetY);
+        if (!any) return;
+
+        g2.setStroke(strokeFor(zoom));
+        for (int b = 0; b < paths.length; b++) {
+            if (!used[b]) continue;
+            g2.setColor(TrailPalette.color(b));
+            g2.draw(paths[b]);
+        }
+    }
+
+    /** Appends one track's visible segments to the bucket paths; returns false if none were. */
+    private boolean collect(Track lod, TrailBuffer trail, int track, int newest, double before, Rectangle clip,
+                            double zoom, int offsetX, int offsetY) {
+        if (lod.keptCount == 0) return false;
+        boolean any = false;
+        int previous = trail.indexOf(lod.kept[lod.keptStart]);
+        int runBucket = -1; // bucket whose path the pen is currently down in
+        for (int k = 1; k <= lod.keptCount; k++) {
+            // The newest point always ends the polyline, kept or not
+            int next = k < lod.keptCount ? trail.indexOf(lod.kept[lod.keptStart + k]) : newest;
+            if (next == previous || trail.getTime(track, previous) >= before) break;
+            int x1 = (int) (trail.getX(track, previous) * zoom) + offsetX;
+            int y1 = (int) (trail.getY(track, previous) * zoom) + offsetY;
+            int x2 = (int) (trail.getX(track, next) * zoom) + offsetX;
+            int y2 = (int) (trail.getY(track, next) * zoom) + offsetY;
+            if (clip != null && outsideSameEdge(clip, x1, y1, x2, y2)) {
+                runBucket = -1;
+            } else {
+                int bucket = TrailPalette.bucket((trail.getTime(track, previous) + trail.getTime(track, next)) / 2.0);
+                Path2D.Float path = paths[bucket];
+                if (bucket != runBucket) path.moveTo(x1, y1);
+                path.lineTo(x2, y2);
+                used[bucket] = true;
+                runBucket = bucket;
+                any = true;
+            }
+            previous = next;
+        }
+        return any;
+    }
+
+    /** Stroke for a given zoom, reused while the zoom stays the same. */
+    static BasicStroke strokeFor(double zoom, BasicStroke cached) {
+        float width = (float) (2 * zoom);
+        if (cached != null && cached.getLineWidth() == width) return cached;
+        return new BasicStroke(width, BasicStroke.CAP_SQUARE, BasicStroke.JOIN_ROUND);
+    }
+
+    private BasicStroke strokeFor(double zoom) {
+        stroke = strokeFor(zoom, stroke);
+        return stroke;
+    }
+
+    /** Number of points, over all tracks, the last {@link #draw} could use, for diagnostics. */
+    public int getKeptCount() {
+        int count = 0;
+        for (Track lod : tracks) count += lod.keptCount;
+        return count;
+    }
+
+    // ----------------------------
+    // Level of detail
+    // ----------------------------
+    private void update(TrailBuffer trail, double zoom) {
+        boolean reset = zoom != cachedZoom || trail.getGeneration() != cachedGeneration;
+        if (tracks.length != trail.getTrackCount()) {
+            tracks = new Track[trail.getTrackCount()];
+            for (int t = 0; t < tracks.length; t++) tracks[t] = new Track();
+            reset = true;
+        }
+        cachedZoom = zoom;
+        cachedGeneration = trail.getGeneration();
+
+        long first = trail.getFirstSequence();
+        for (int t = 0; t < tracks.length; t++) {
+            if (reset) tracks[t].reset(first);
+            tracks[t].update(trail, t, zoom);
+        }
+    }
+
+    /** Kept sequence numbers of one track. */
+    private static final class Track {
+        private long[] kept = new long[256]; // sequence numbers, oldest first from keptStart
+        private int keptStart = 0;
+        private int keptCount = 0;
+        private long scanned = 0;            // next sequence number to consider
+        private double lastKeptX;
+        private double lastKeptY;
+
+        private void reset(long first) {
+            keptStart = 0;
+            keptCount = 0;
+            scanned = first;
+        }
+
+        private void update(TrailBuffer trail, int track, double zoom) {
+            long first = trail.getFirstSequence();
+
+            // Forget points that fell off the tail of the ring
+            while (keptCount > 0 && kept[keptStart] < first) {
+                keptStart++;
+                keptCount--;
+            }
+            if (scanned < first) scanned = first;
+
+            long end = first + trail.size();
+            double minDistanceSquared = MIN_PIXEL_DISTANCE * MIN_PIXEL_DISTANCE;
+            for (; scanned < end; scanned++) {
+                int index = trail.indexOf(scanned);
+                double x = trail.getX(track, index) * zoom;
+                double y = trail.getY(track, index) * zoom;
+                if (keptCount > 0) {
+                    double dx = x - lastKeptX;
+                    double dy = y - lastKeptY;
+                    if (dx * dx + dy * dy < minDistanceSquared) continue;
+                }
+                keep(scanned);
+                lastKeptX = x;
+                lastKeptY = y;
+            }
+        }
+
+        private void keep(long sequence) {
+            if (keptStart + keptCount == kept.length) {
+                if (keptStart > kept.length / 2) {
+                    System.arraycopy(kept, keptStart, kept, 0, keptCount);
+                } else {
+                    long[] grown = new long[kept.length * 2];
+                    System.arraycopy(kept, keptStart, grown, 0, keptCount);
+                    kept = grown;
+                }
+                keptStart = 0;
+            }
+            kept[keptStart + keptCount++] = sequence;
+        }
+    }
+
+    private static boolean outsideSameEdge(Rectangle clip, int x1, int y1, int x2, int y2) {
+        return (x1 < clip.x && x2 < clip.x)
+                || (y1 < clip.y && y2 < clip.y)
+                || (x1 > clip.x + clip.width && x2 > clip.x + clip.width)
+                || (y1 > clip.y + clip.height && y2 > clip.y + clip.height);
+    }
+}
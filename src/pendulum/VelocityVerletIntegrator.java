@@ -0,0 +1,44 @@
+package pendulum;
+
+/**
+ * Second-order velocity Verlet (kick-drift-kick). Symplectic and time-reversible for
+ * position-only forces such as {@link IndependentPendulums}, so the energy error stays bounded
+ * instead of drifting. For velocity-dependent accelerations ({@link PendulumChain}) the half-step
+ * velocity is used, which keeps second order but not exact symplecticity.
+ */
+public class VelocityVerletIntegrator implements Integrator {
+
+    private double[] a = new double[0];
+    private long stepsTaken = 0;
+
+    @Override
+    public void advance(MechanicalSystem system, double t, double[] q, double[] v, double dt) {
+        int n = system.getDimension();
+        if (a.length < n) a = new double[n];
+        double halfStep = 0.5 * dt;
+
+        system.computeAccelerations(t, q, v, a);
+        for (int i = 0; i < n; i++) {
+            v[i] += a[i] * halfStep;
+            q[i] += v[i] * dt;
+        }
+        system.computeAccelerations(t + dt, q, v, a);
+        for (int i = 0; i < n; i++) {
+            v[i] += a[i] * halfStep;
+        }
+        stepsTaken++;
+    }
+
+    /** The four-link chain diverges from steps of about 0.45. */
+    @Override
+    public double getMaxChainStep() { return 0.16; }
+
+    @Override
+    public String getName() { return "Velocity Verlet"; }
+
+    @Override
+    public long getStepsTaken() { return stepsTaken; }
+
+    @Override
+    public void resetCounters() { stepsTaken = 0; }
+}
@@ -1,11 +1,29 @@
 package pendulum.uielements;
 
 import java.awt.*;
-import java.util.List;
-import pendulum.TrailPoint;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import pendulum.Channel;
+import pendulum.ChannelBuffer;
+import pendulum.ChannelPyramid;
+import pendulum.M4Aggregate;
 
+/**
+ * Plots recorded channels of one pendulum over time, several at once.
+ *
+ * <p>Every pixel column keeps the first, last, minimum and maximum value of the samples that fall
+ * in it ({@link M4Aggregate}), one aggregate per channel, updated as samples arrive, so a frame
+ * draws at most two segments per column and channel whatever the sample rate. Each channel is
+ * scaled to the plot on its own; ranges that cross zero stay centred on the axis. The legend
+ * toggles channels. The view follows the newest sample until it is dragged or zoomed with the
+ * wheel; the history comes from a {@link ChannelPyramid}, exact where the full resolution level
+ * still reaches and extremes-preserving further back. Dragging back to the live edge resumes
+ * following.
+ */
 public class Graph {
 
+    private static final Channel[] CHANNELS = Channel.values();
+
     private final int x;
     private final int y;
     private final int width;
@@ -14,9 +32,8 @@ public class Graph {
     private final int borderWidth;
     private final Color gridColor;
     private final int spacing = 10;
-    private final List<TrailPoint> trail;
-    @SuppressWarnings("FieldMayBeFinal")
-    private int cameraX;
+    private final ChannelPyramid samples;
+    private int pendulum = 0;
     @SuppressWarnings("FieldMayBeFinal")
     private int cameraY;
     @SuppressWarnings("FieldMayBeFinal")
@@ -24,8 +41,33 @@ public class Graph {
     @SuppressWarnings("FieldMayBeFinal")
     private int originY;
 
+    // View: one aggregate column per pixel
+    private static final double DEFAULT_SECONDS_PER_PIXEL = 0.2;
+    private static final double MIN_SECONDS_PER_PIXEL = 1e-3;
+    private static final double MAX_SECONDS_PER_PIXEL = 3600;
+    private static final int FOLLOW_MARGIN = 100; // pixels kept free right of the newest sample
+    private static final int PLOT_PADDING = 10;   // pixels kept free above and below each channel
+    private final M4Aggregate[] columns = new M4Aggregate[CHANNELS.length];
+    private final boolean[] visible = new boolean[CHANNELS.length];
+    private boolean following = true;
+    private boolean stale = true;        // columns must be rebuilt from the pyramid
+    private int builtGeneration = -1;
+    private int builtPendulum = -1;
+    private long consumed;               // next full-resolution sequence number to fold in
+
+    private boolean dragging = false;
+    private int dragStartX;
+    private double dragStartView;
+
+    // Legend
+    private static final Font LEGEND_FONT = new Font("Poppins", Font.PLAIN, 12);
+    private static final int LEGEND_X = 6;
+    private static final int LEGEND_Y = 6;
+    private static final int LEGEND_ROW = 16;
+    private static final int LEGEND_WIDTH = 150;
+
     public Graph(int x, int y, int width, int height, int borderWidth,
-                Color graphColor, Color gridColor, List<TrailPoint> trail) {
+                Color graphColor, Color gridColor, ChannelPyramid samples) {
         this.x = x;
         this.y = y;
         this.width = width;
@@ -33,15 +75,95 @@ public class Graph {
         this.graphColor = graphColor;
         this.borderWidth = borderWidth;
         this.gridColor = gridColor;
-        this.trail = trail;
+        this.samples = samples;
 
-        cameraX = 0;
         cameraY = width/2;
 
-        originX = x + cameraX;
+        originX = x;
         originY = y + cameraY;
+
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = new M4Aggregate(width);
+            columns[c].reset(0, DEFAULT_SECONDS_PER_PIXEL);
+        }
+        visible[Channel.BOB_X.ordinal()] = true;
+    }
+
+    // ----------------------------
+    // Setters
+    // ----------------------------
+    /** Selects which pendulum's channels are plotted. */
+    public void setPendulum(int pendulum) { this.pendulum = pendulum; }
+
+    public void setChannelVisible(Channel channel, boolean show) { visible[channel.ordinal()] = show; }
+    public boolean isChannelVisible(Channel channel) { return visible[channel.ordinal()]; }
+
+    public boolean contains(int mx, int my) {
+        return mx >= x && mx <= x + width && my >= y && my <= y + height;
+    }
+
+    // ----------------------------
+    // Mouse Handling
+    // ----------------------------
+    /** Click the legend to toggle a channel, drag to pan. Returns true when the event belonged to the graph. */
+    public boolean handleMouse(MouseEvent e) {
+        switch (e.getID()) {
+            case MouseEvent.MOUSE_PRESSED -> {
+                if (!contains(e.getX(), e.getY())) return false;
+                int row = legendRowAt(e.getX(), e.getY());
+                if (row >= 0) {
+                    visible[row] = !visible[row];
+                    return true;
+                }
+                dragging = true;
+                dragStartX = e.getX();
+                dragStartView = view().getStart();
+                return true;
+            }
+            case MouseEvent.MOUSE_DRAGGED -> {
+                if (!dragging) return false;
+                double secondsPerPixel = view().getColumnWidth();
+                moveView(dragStartView - (e.getX() - dragStartX) * secondsPerPixel, secondsPerPixel);
+                return true;
+            }
+            case MouseEvent.MOUSE_RELEASED -> {
+                if (!dragging) return false;
+                dragging = false;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Zooms the time axis around the mouse. Returns true when the event belonged to the graph. */
+    public boolean handleWheel(MouseWheelEvent e) {
+        if (!contains(e.getX(), e.getY())) return false;
+        M4Aggregate view = view();
+        double secondsPerPixel = view.getColumnWidth() * Math.pow(1.25, e.getPreciseWheelRotation());
+        secondsPerPixel = Math.max(MIN_SECONDS_PER_PIXEL, Math.min(MAX_SECONDS_PER_PIXEL, secondsPerPixel));
+        double mouseTime = view.getStart() + (e.getX() - originX) * view.getColumnWidth();
+        moveView(mouseTime - (e.getX() - originX) * secondsPerPixel, secondsPerPixel);
+        return true;
+    }
+
+    private int legendRowAt(int mx, int my) {
+        int row = (my - y - LEGEND_Y) / LEGEND_ROW;
+        boolean inside = mx >= x + LEGEND_X && mx <= x + LEGEND_X + LEGEND_WIDTH && my >= y + LEGEND_Y;
+        return inside && row < CHANNELS.length ? row : -1;
+    }
+
+    private void moveView(double start, double secondsPerPixel) {
+        // Columns stay aligned to multiples of their width so panning does not shimmer
+        double aligned = Math.floor(start / secondsPerPixel) * secondsPerPixel;
+        if (aligned == view().getStart() && secondsPerPixel == view().getColumnWidth()) return;
+        for (M4Aggregate aggregate : columns) aggregate.reset(aligned, secondsPerPixel);
+        following = samples.getLevel(0).isEmpty() || newestTime() <= liveEdge();
+        stale = true;
     }
 
+    // ----------------------------
+    // Drawing
+    // ----------------------------
     public void draw(Graphics2D g2) {
 
         Utils.drawSquare(g2, x, y, width, height, graphColor, borderWidth);
@@ -49,46 +171,160 @@ public class Graph {
         Shape oldClip = g2.getClip();
         g2.setClip(x, y, width, height);
 
-        Utils.drawGrid(g2, cameraX, cameraY, x, y, width, height, spacing, gridColor, 1);
+        // Grid lines stay put relative to the data while the view scrolls
+        int scrolled = (int) Math.floorMod((long) Math.floor(view().getStart() / view().getColumnWidth()), (long) spacing);
+        Utils.drawGrid(g2, originX - scrolled, cameraY + y, x, y, width, height, spacing, gridColor, 1);
 
         // draw axis lines
         g2.setColor(UIColors.AXES.toColor());
         g2.drawLine(x, originY, x + width, originY);  // horizontal
         g2.drawLine(originX, y, originX, y + height); // vertical
 
-        drawTrail(g2);
+        if (samples != null && pendulum < samples.getPendulumCount()) {
+            update();
+            g2.setStroke(new BasicStroke(2));
+            for (Channel channel : CHANNELS) {
+                if (visible[channel.ordinal()]) drawChannel(g2, columns[channel.ordinal()], colorFor(channel));
+            }
+        }
+        drawLegend(g2);
 
         g2.setClip(oldClip);
     }
 
-    private void drawTrail(Graphics2D g2) {
-        if (trail == null || trail.size() < 2) return;
+    private void drawChannel(Graphics2D g2, M4Aggregate aggregate, Color color) {
+        // Range of the visible columns; symmetric about zero when it crosses zero
+        float low = Float.POSITIVE_INFINITY;
+        float high = Float.NEGATIVE_INFINITY;
+        for (int c = 0; c < aggregate.getColumns(); c++) {
+            if (!aggregate.hasData(c)) continue;
+            low = Math.min(low, aggregate.getMin(c));
+            high = Math.max(high, aggregate.getMax(c));
+        }
+        if (low > high) return;
+        if (low < 0 && high > 0) {
+            high = Math.max(high, -low);
+            low = -high;
+        }
+        double center = (low + high) / 2.0;
+        double scale = (height / 2.0 - PLOT_PADDING) / Math.max((high - low) / 2.0, 1e-9);
 
-        g2.setStroke(new BasicStroke(2));
-        g2.setColor(Color.BLACK);
+        g2.setColor(color);
+        int previousY = Integer.MIN_VALUE;
+        for (int c = 0; c < aggregate.getColumns(); c++) {
+            if (!aggregate.hasData(c)) {
+                previousY = Integer.MIN_VALUE;
+                continue;
+            }
+            int px = originX + c;
+            int firstY = originY - (int) ((aggregate.getFirst(c) - center) * scale); // flip vertically
+            if (previousY != Integer.MIN_VALUE) g2.drawLine(px - 1, previousY, px, firstY);
+            g2.drawLine(px, originY - (int) ((aggregate.getMin(c) - center) * scale),
+                    px, originY - (int) ((aggregate.getMax(c) - center) * scale));
+            previousY = originY - (int) ((aggregate.getLast(c) - center) * scale);
+        }
+    }
 
-        // Scale factor to convert time -> pixels
-        final int timeScale = 5;
+    private void drawLegend(Graphics2D g2) {
+        g2.setColor(UIColors.LEGEND_BACKGROUND.toColor());
+        g2.fillRect(x + LEGEND_X, y + LEGEND_Y, LEGEND_WIDTH, CHANNELS.length * LEGEND_ROW + 4);
+        FontMetrics metrics = g2.getFontMetrics(LEGEND_FONT);
+        g2.setFont(LEGEND_FONT);
+        for (Channel channel : CHANNELS) {
+            int rowY = y + LEGEND_Y + 2 + channel.ordinal() * LEGEND_ROW;
+            boolean shown = visible[channel.ordinal()];
+            g2.setColor(shown ? colorFor(channel) : UIColors.LEGEND_HIDDEN.toColor());
+            g2.fillRect(x + LEGEND_X + 4, rowY + 4, 10, 8);
+            g2.drawString(channel.getLabel(), x + LEGEND_X + 20, rowY + (LEGEND_ROW + metrics.getAscent()) / 2 - 1);
+        }
+    }
 
-        // Compute x position of latest point in pixel space
-        double lastTimeX = trail.get(trail.size() - 1).getTime() * timeScale;
+    private static Color colorFor(Channel channel) {
+        return switch (channel) {
+            case BOB_X -> UIColors.GRAPH_BOB_X.toColor();
+            case BOB_Y -> UIColors.GRAPH_BOB_Y.toColor();
+            case ANGLE -> UIColors.GRAPH_ANGLE.toColor();
+            case ANGULAR_VELOCITY -> UIColors.GRAPH_ANGULAR_VELOCITY.toColor();
+            case ANGULAR_ACCELERATION -> UIColors.GRAPH_ANGULAR_ACCELERATION.toColor();
+            case ENERGY -> UIColors.GRAPH_ENERGY.toColor();
+        };
+    }
 
-        // Shift camera so the latest point stays visible
-        if (lastTimeX - cameraX > width - 100) {   // 100px margin
-            cameraX = (int)(lastTimeX - width + 100);
+    // ----------------------------
+    // Aggregation
+    // ----------------------------
+    private void update() {
+        M4Aggregate view = view();
+        ChannelBuffer recent = samples.getLevel(0);
+        if (samples.getGeneration() != builtGeneration || pendulum != builtPendulum) {
+            builtGeneration = samples.getGeneration();
+            builtPendulum = pendulum;
+            following = true;
+            for (M4Aggregate aggregate : columns) aggregate.reset(0, view.getColumnWidth());
+            stale = true;
         }
+        if (recent.isEmpty()) return;
 
-        for (int i = 0; i < trail.size() - 1; i++) {
-            TrailPoint p1 = trail.get(i);
-            TrailPoint p2 = trail.get(i + 1);
+        if (following) {
+            // Slide whole columns so the newest sample stays FOLLOW_MARGIN pixels from the edge
+            double overshoot = newestTime() - liveEdge();
+            if (overshoot > 0) {
+                int count = (int) Math.ceil(overshoot / view.getColumnWidth());
+                if (count >= view.getColumns()) {
+                    double start = view.getStart() + count * view.getColumnWidth();
+                    for (M4Aggregate aggregate : columns) aggregate.reset(start, view.getColumnWidth());
+                    stale = true;
+                } else {
+                    for (M4Aggregate aggregate : columns) aggregate.slide(count);
+                }
+            }
+        }
 
-            int x1 = (int)(p1.getTime() * timeScale) - cameraX + originX;
-            int x2 = (int)(p2.getTime() * timeScale) - cameraX + originX;
+        if (stale) {
+            rebuild();
+            stale = false;
+        } else {
+            long end = recent.getFirstSequence() + recent.size();
+            for (long s = Math.max(consumed, recent.getFirstSequence()); s < end; s++) addRow(recent, recent.indexOf(s));
+            consumed = end;
+        }
+    }
 
-            int y1 = originY - p1.getX(); // flip vertically if needed
-            int y2 = originY - p2.getX();
+    /** Refills the columns from the pyramid, oldest history first, each level up to where the finer one begins. */
+    private void rebuild() {
+        double start = view().getStart();
+        double end = view().getEnd();
+        for (int k = ChannelPyramid.LEVELS - 1; k >= 0; k--) {
+            ChannelBuffer rows = samples.getLevel(k);
+            double before = end;
+            if (k > 0 && !samples.getLevel(k - 1).isEmpty()) before = Math.min(end, samples.getLevel(k - 1).getTime(0));
+            // A summary pair's values can be later than its row times, so start one pair early
+            int first = Math.max(0, rows.indexAtTime(start) - 2);
+            for (int i = first; i < rows.size() && rows.getTime(i) < before; i++) addRow(rows, i, before);
+        }
+        ChannelBuffer recent = samples.getLevel(0);
+        consumed = recent.getFirstSequence() + recent.size();
+    }
+
+    private void addRow(ChannelBuffer rows, int i) {
+        addRow(rows, i, Double.POSITIVE_INFINITY);
+    }
 
-            g2.drawLine(x1, y1, x2, y2);
+    /** Adds the values of row {@code i} taken before {@code before}, each at the time it was taken. */
+    private void addRow(ChannelBuffer rows, int i, double before) {
+        for (Channel channel : CHANNELS) {
+            double time = rows.getTime(channel, pendulum, i);
+            if (time < before) columns[channel.ordinal()].add(time, rows.get(channel, pendulum, i));
         }
     }
+
+    /** All channels share one window; the first aggregate stands for it. */
+    private M4Aggregate view() { return columns[0]; }
+
+    private double liveEdge() { return view().getEnd() - FOLLOW_MARGIN * view().getColumnWidth(); }
+
+    private double newestTime() {
+        ChannelBuffer recent = samples.getLevel(0);
+        return recent.getTime(recent.size() - 1);
+    }
 }
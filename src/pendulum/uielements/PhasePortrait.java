@@ -0,0 +1,114 @@
+package pendulum.uielements;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import pendulum.PhaseHistogram;
+
+/**
+ * Density of one pendulum's states in the angle / angular velocity plane, drawn from a
+ * {@link PhaseHistogram}.
+ *
+ * <p>Counts are tone-mapped on a log scale into an image with one pixel per histogram cell, and
+ * only when the histogram changed since the last frame; the image is then scaled to the view. A
+ * frame costs the same whether the histogram holds a thousand samples or a billion.
+ */
+public class PhasePortrait {
+
+    private static final int PALETTE_SIZE = 256;
+    private static final Color[] PALETTE_STOPS = {
+            new Color(0, 0, 4), new Color(87, 16, 110), new Color(188, 55, 84),
+            new Color(249, 142, 9), new Color(252, 255, 164)
+    };
+    private static final int[] PALETTE = buildPalette();
+    private static final int CACHED_COUNTS = 1024; // colours of counts below this are looked up, not logged
+    private static final Font LABEL_FONT = new Font("Poppins", Font.PLAIN, 11);
+
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+    private final int borderWidth;
+    private final PhaseHistogram histogram;
+    private final BufferedImage image;
+    private final int[] pixels;
+    private final int[] countColors = new int[CACHED_COUNTS];
+    private int pendulum = 0;
+    private int renderedVersion = -1;
+    private int renderedPendulum = -1;
+
+    public PhasePortrait(int x, int y, int width, int height, int borderWidth, PhaseHistogram histogram) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.borderWidth = borderWidth;
+        this.histogram = histogram;
+
+        int resolution = histogram.getResolution();
+        image = new BufferedImage(resolution, resolution, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    /** Selects which pendulum's portrait is shown. */
+    public void setPendulum(int pendulum) { this.pendulum = pendulum; }
+
+    // ----------------------------
+    // Drawing
+    // ----------------------------
+    public void draw(Graphics2D g2) {
+        if (pendulum >= histogram.getPendulumCount()) return;
+        if (histogram.getVersion() != renderedVersion || pendulum != renderedPendulum) toneMap();
+
+        Utils.drawSquare(g2, x, y, width, height, new Color(PALETTE[0]), borderWidth);
+
+        Object oldInterpolation = g2.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.drawImage(image, x, y, width, height, null);
+        if (oldInterpolation != null) g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, oldInterpolation);
+
+        g2.setFont(LABEL_FONT);
+        g2.setColor(UIColors.PHASE_LABEL.toColor());
+        int ascent = g2.getFontMetrics().getAscent();
+        g2.drawString(String.format("+%.2f rad/s", histogram.getVelocityRange(pendulum)), x + 4, y + 2 + ascent);
+        g2.drawString("Angle  -pi .. pi", x + 4, y + height - 4);
+        g2.drawString(String.format("%,d", histogram.getTotal(pendulum)), x + 4, y + 2 + 2 * ascent);
+    }
+
+    /** Rewrites the image from the histogram: log(1 + count) relative to the largest count. */
+    private void toneMap() {
+        int[] counts = histogram.getCounts(pendulum);
+        int max = histogram.getMaxCount(pendulum);
+        double scale = max == 0 ? 0 : (PALETTE_SIZE - 1) / Math.log1p(max);
+        // Most cells hold small counts, so their colours are computed once per frame
+        countColors[0] = PALETTE[0];
+        for (int count = 1; count < CACHED_COUNTS; count++) countColors[count] = colorOf(count, scale);
+        for (int i = 0; i < counts.length; i++) {
+            int count = counts[i];
+            pixels[i] = count < CACHED_COUNTS ? countColors[count] : colorOf(count, scale);
+        }
+        renderedVersion = histogram.getVersion();
+        renderedPendulum = pendulum;
+    }
+
+    private static int colorOf(int count, double scale) {
+        return PALETTE[Math.max(1, Math.min(PALETTE_SIZE - 1, (int) (Math.log1p(count) * scale)))];
+    }
+
+    private static int[] buildPalette() {
+        int[] palette = new int[PALETTE_SIZE];
+        int segments = PALETTE_STOPS.length - 1;
+        for (int i = 0; i < PALETTE_SIZE; i++) {
+            double position = (double) i / (PALETTE_SIZE - 1) * segments;
+            int stop = Math.min(segments - 1, (int) position);
+            double t = position - stop;
+            Color from = PALETTE_STOPS[stop];
+            Color to = PALETTE_STOPS[stop + 1];
+            int r = (int) Math.round(from.getRed() + (to.getRed() - from.getRed()) * t);
+            int g = (int) Math.round(from.getGreen() + (to.getGreen() - from.getGreen()) * t);
+            int b = (int) Math.round(from.getBlue() + (to.getBlue() - from.getBlue()) * t);
+            palette[i] = (r << 16) | (g << 8) | b;
+        }
+        return palette;
+    }
+}
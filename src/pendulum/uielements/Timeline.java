@@ -0,0 +1,115 @@
+package pendulum.uielements;
+
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.util.function.DoubleConsumer;
+
+/** Horizontal scrubber over a time range; dragging the knob reports the time under the mouse. */
+public class Timeline {
+
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+    private final Color trackColor;
+    private final Color fillColor;
+    private final DoubleConsumer onSeek;
+
+    private double start = 0;
+    private double end = 0;
+    private double position = 0;
+    private boolean dragging = false;
+    private boolean hovered = false;
+
+    private static final Font TIME_FONT = new Font("Poppins", Font.PLAIN, 14);
+
+    public Timeline(int x, int y, int width, int height, Color trackColor, Color fillColor, DoubleConsumer onSeek) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.trackColor = trackColor;
+        this.fillColor = fillColor;
+        this.onSeek = onSeek;
+    }
+
+    // ----------------------------
+    // Mouse Handling
+    // ----------------------------
+    /** Returns true when the event belonged to the timeline. */
+    public boolean handleMouse(MouseEvent e) {
+        boolean inside = contains(e.getX(), e.getY());
+        switch (e.getID()) {
+            case MouseEvent.MOUSE_MOVED -> hovered = inside;
+            case MouseEvent.MOUSE_PRESSED -> {
+                if (!inside) return false;
+                dragging = true;
+                seekTo(e.getX());
+                return true;
+            }
+            case MouseEvent.MOUSE_DRAGGED -> {
+                if (!dragging) return false;
+                seekTo(e.getX());
+                return true;
+            }
+            case MouseEvent.MOUSE_RELEASED -> {
+                if (!dragging) return false;
+                dragging = false;
+                seekTo(e.getX());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void seekTo(int mouseX) {
+        double fraction = Math.max(0, Math.min(1, (mouseX - x) / (double) width));
+        double time = start + fraction * (end - start);
+        if (time == position) return;
+        position = time;
+        onSeek.accept(time);
+    }
+
+    public boolean contains(int mx, int my) {
+        return mx >= x && mx <= x + width && my >= y && my <= y + height;
+    }
+
+    // ----------------------------
+    // Drawing
+    // ----------------------------
+    public void draw(Graphics2D g2) {
+        int trackHeight = height / 3;
+        int trackY = y + (height - trackHeight) / 2;
+        double fraction = end > start ? (position - start) / (end - start) : 1;
+        int knobX = x + (int) (Math.max(0, Math.min(1, fraction)) * width);
+
+        Object oldAntialias = g2.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setColor(trackColor);
+        g2.fillRoundRect(x, trackY, width, trackHeight, trackHeight, trackHeight);
+        g2.setColor(fillColor);
+        g2.fillRoundRect(x, trackY, knobX - x, trackHeight, trackHeight, trackHeight);
+
+        int knob = (dragging || hovered) ? height : height * 3 / 4;
+        Utils.drawCircle(g2, knobX - knob / 2, y + (height - knob) / 2, knob, knob, fillColor, Color.BLACK, 1);
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, oldAntialias);
+
+        Utils.drawTextWithBorder(g2, String.format("%.1f s", start), x, y - 4, TIME_FONT, Color.WHITE, Color.BLACK, 1);
+        String endText = String.format("%.1f s", end);
+        int endWidth = g2.getFontMetrics(TIME_FONT).stringWidth(endText);
+        Utils.drawTextWithBorder(g2, endText, x + width - endWidth, y - 4, TIME_FONT, Color.WHITE, Color.BLACK, 1);
+    }
+
+    // ----------------------------
+    // Setters
+    // ----------------------------
+    /** Updates the scrubbable range and the knob; ignored while dragging so the scale holds still. */
+    public void setRange(double start, double end, double position) {
+        if (dragging) return;
+        this.start = start;
+        this.end = end;
+        this.position = position;
+    }
+
+    public boolean isDragging() { return dragging; }
+}
@@ -0,0 +1,71 @@
+package pendulum.uielements;
+
+import java.awt.*;
+
+/** Box of text lines drawn next to a point, kept inside the clip. */
+public class Tooltip {
+
+    private static final Font FONT = new Font("Poppins", Font.PLAIN, 14);
+    private static final int PADDING = 6;
+    private static final int OFFSET = 14; // gap between the point and the box
+
+    private final Color backgroundColor;
+    private final Color textColor;
+
+    private String[] lines = new String[0];
+    private int x;
+    private int y;
+    private boolean visible = false;
+
+    public Tooltip(Color backgroundColor, Color textColor) {
+        this.backgroundColor = backgroundColor;
+        this.textColor = textColor;
+    }
+
+    public void show(int x, int y, String... lines) {
+        this.x = x;
+        this.y = y;
+        this.lines = lines;
+        this.visible = true;
+    }
+
+    public void hide() { visible = false; }
+    public boolean isVisible() { return visible; }
+
+    // ----------------------------
+    // Drawing
+    // ----------------------------
+    public void draw(Graphics2D g2) {
+        if (!visible || lines.length == 0) return;
+        FontMetrics metrics = g2.getFontMetrics(FONT);
+        int width = 0;
+        for (String line : lines) width = Math.max(width, metrics.stringWidth(line));
+        width += 2 * PADDING;
+        int height = lines.length * metrics.getHeight() + 2 * PADDING;
+
+        int boxX = x + OFFSET;
+        int boxY = y + OFFSET;
+        Rectangle clip = g2.getClipBounds();
+        if (clip != null) {
+            if (boxX + width > clip.x + clip.width) boxX = x - OFFSET - width;
+            if (boxY + height > clip.y + clip.height) boxY = y - OFFSET - height;
+        }
+
+        Object oldAntialias = g2.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setColor(backgroundColor);
+        g2.fillRoundRect(boxX, boxY, width, height, 10, 10);
+        g2.setColor(Color.BLACK);
+        g2.setStroke(new BasicStroke(1));
+        g2.drawRoundRect(boxX, boxY, width, height, 10, 10);
+
+        g2.setFont(FONT);
+        g2.setColor(textColor);
+        int lineY = boxY + PADDING + metrics.getAscent();
+        for (String line : lines) {
+            g2.drawString(line, boxX + PADDING, lineY);
+            lineY += metrics.getHeight();
+        }
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, oldAntialias);
+    }
+}
@@ -10,6 +10,13 @@ public enum UIColors {
     FOLLOW(new Color(0, 123, 255)),
     TRACE(new Color(138, 43, 226)),
     ARROW_BUTTON(new Color(255, 140, 0)),
+    WARP(new Color(0, 170, 170)),
+    WARP_ACTIVE(new Color(255, 215, 0)),
+    //TIMELINE
+    TIMELINE_TRACK(new Color(0, 0, 0, 90)),
+    TIMELINE_FILL(new Color(138, 43, 226)),
+    //TOOLTIP
+    TOOLTIP(new Color(255, 255, 255, 230)),
     PENDULUM_BUTTON(new Color(0, 140, 0)),
     //DATA SET
     TAB(new Color(138, 43, 226)),
@@ -25,6 +32,15 @@ public enum UIColors {
     GRID(new Color(200,200,255)), 
     AXES(new Color(0,0,255)),
     ARROW(new Color(200,0,255)),
+    GRAPH_BOB_X(new Color(0,0,0)),
+    GRAPH_BOB_Y(new Color(0,150,0)),
+    GRAPH_ANGLE(new Color(220,0,0)),
+    GRAPH_ANGULAR_VELOCITY(new Color(0,90,220)),
+    GRAPH_ANGULAR_ACCELERATION(new Color(230,120,0)),
+    GRAPH_ENERGY(new Color(150,0,200)),
+    LEGEND_BACKGROUND(new Color(255,255,255,200)),
+    LEGEND_HIDDEN(new Color(170,170,170)),
+    PHASE_LABEL(new Color(255,255,255,190)),
 
     BACKGROUND(new Color(62,201,247)),
     VIGNETTE(new Color(0,0,0,125)),